@@ -91,7 +91,7 @@ public class GameplayUI extends ServerFacade {
         if (row < 1 || row > 8) {
             throw new UIException(true, "Invalid position given.");
         }
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     public static UIData move(String start, String end) {
@@ -234,7 +234,7 @@ public class GameplayUI extends ServerFacade {
                 } else if (j == 10) {
                     output.append(RESET_BG_COLOR + "| ").append(normal ? 9 - i : i).append('\n');
                 } else {
-                    ChessPosition position = new ChessPosition((normal ? 9 - i : i), (normal ? j - 1 : 9 - (j - 1)));
+                    ChessPosition position = ChessPosition.of((normal ? 9 - i : i), (normal ? j - 1 : 9 - (j - 1)));
                     ChessPiece piece = board.getPiece(position);
                     if ((i + j) % 2 == 0) {
                         output.append(SET_BG_COLOR_BLACK);
@@ -269,7 +269,7 @@ public class GameplayUI extends ServerFacade {
                 } else if (j == 10) {
                     output.append(RESET_BG_COLOR + "| ").append(normal ? 9 - i : i).append('\n');
                 } else {
-                    ChessPosition position = new ChessPosition((normal ? 9 - i : i), (normal ? j - 1 : 9 - (j - 1)));
+                    ChessPosition position = ChessPosition.of((normal ? 9 - i : i), (normal ? j - 1 : 9 - (j - 1)));
                     ChessPiece piece = board.getPiece(position);
                     if (position.equals(start)) {
                         output.append(SET_BG_COLOR_DARK_GREEN);
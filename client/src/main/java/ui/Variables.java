@@ -1,11 +1,12 @@
 package ui;
 
+import chess.ChessGson;
 import com.google.gson.Gson;
 
 public class Variables {
 
     public static String serverLocation = "localhost:8080";
-    public static final Gson GSON = new Gson();
+    public static final Gson GSON = ChessGson.create();
     public static String authToken;
     public static boolean inGame = false;
 
@@ -1,16 +1,19 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessGameCodec;
+import chess.ChessGson;
 import com.google.gson.Gson;
 import model.GameData;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.HashSet;
 import java.util.Set;
 
 public class GameDAO {
 
-    private static final Gson GSON = new Gson();
+    private static final Gson GSON = ChessGson.create();
 
     public static void setUp() {
         try (Connection conn = DatabaseManager.getConnection()) {
@@ -20,15 +23,43 @@ public class GameDAO {
                         white_username VARCHAR(255),
                         black_username VARCHAR(255),
                         game_name VARCHAR(255) NOT NULL,
-                        chess_game LONGTEXT NOT NULL
+                        chess_game LONGBLOB NOT NULL
             );""")) {
                 statement.executeUpdate();
             }
+            migrateGameColumn(conn);
         } catch (SQLException | DataAccessException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Games used to be stored as JSON text. The column is switched to binary in place; the JSON already in it stays
+     * readable through {@link #readGame(byte[])}.
+     */
+    private static void migrateGameColumn(Connection conn) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement("SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'games' AND COLUMN_NAME = 'chess_game';")) {
+            ResultSet res = statement.executeQuery();
+            if (!res.next() || res.getString(1).equalsIgnoreCase("longblob")) {
+                return;
+            }
+        }
+        try (PreparedStatement statement = conn.prepareStatement("ALTER TABLE games MODIFY chess_game LONGBLOB NOT NULL;")) {
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * @return the game from a chess_game value, in either the binary encoding or the JSON stored by older versions
+     */
+    private static ChessGame readGame(byte[] stored) {
+        if (stored.length > 0 && stored[0] == '{') {
+            return GSON.fromJson(new String(stored, StandardCharsets.UTF_8), ChessGame.class);
+        }
+        return ChessGameCodec.decode(stored);
+    }
+
     public static int createGame(String whiteUsername, String blackUsername, String gameName, ChessGame game) {
         try (Connection conn = DatabaseManager.getConnection()){
             try (PreparedStatement createStatement = conn.prepareStatement("INSERT INTO games (white_username, " +
@@ -58,7 +89,7 @@ public class GameDAO {
             createStatement.setString(2, blackUsername);
         }
         createStatement.setString(3, gameName);
-        createStatement.setString(4, GSON.toJson(game));
+        createStatement.setBytes(4, ChessGameCodec.encode(game));
     }
 
     public static GameData getGame(int gameID) throws DataAccessException {
@@ -68,7 +99,7 @@ public class GameDAO {
                 statement.setInt(1, gameID);
                 ResultSet res = statement.executeQuery();
                 if (res.next()) {
-                    ChessGame game = GSON.fromJson(res.getString("chess_game"), ChessGame.class);
+                    ChessGame game = readGame(res.getBytes("chess_game"));
                     return new GameData(Integer.parseInt(res.getString("game_id")),
                             res.getString("white_username"), res.getString("black_username"),
                             res.getString("game_name"), game);
@@ -86,7 +117,7 @@ public class GameDAO {
                 ResultSet res = statement.executeQuery();
                 Set<GameData> games = new HashSet<>();
                 while (res.next()) {
-                    ChessGame game = GSON.fromJson(res.getString("chess_game"), ChessGame.class);
+                    ChessGame game = readGame(res.getBytes("chess_game"));
                     games.add(new GameData(res.getInt("game_id"), res.getString("white_username"),
                             res.getString("black_username"), res.getString("game_name"), game));
                 }
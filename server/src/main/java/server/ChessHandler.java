@@ -1,5 +1,6 @@
 package server;
 
+import chess.ChessGson;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import dataaccess.HandlerTargetedException;
@@ -11,7 +12,7 @@ import spark.Response;
 import java.util.Map;
 
 public class ChessHandler {
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessGson.create();
 
     private final MasterService service = new MasterService();
 
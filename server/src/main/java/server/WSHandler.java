@@ -20,7 +20,7 @@ public class WSHandler {
 
     public static Map<Session, String> sessions = new HashMap<>();
     public static Map<Integer, Map<String, Session>> gameRooms = new HashMap<>();
-    public static Gson gson = new Gson();
+    public static Gson gson = ChessGson.create();
 
     private static final String SERVER_ERROR_TEXT = "Server error.";
     private static final String AUTH_ERROR_TEXT = "No user registered with your session.";
@@ -120,14 +120,20 @@ public class WSHandler {
         if (otherUsername == null) {
             otherUsername = "their opponent";
         }
-        if (data.game().isInCheckmate(ChessGame.TeamColor.WHITE) || data.game().isInCheckmate(ChessGame.TeamColor.BLACK)) {
-            loadMessage.setMessage(loadMessage.getMessage() + "\n" + user.username() + " put " + otherUsername + " in checkmate. Game over.");
-            session.getRemote().sendString(gson.toJson(loadMessage));
-        } else if (data.game().isInStalemate(ChessGame.TeamColor.WHITE) || data.game().isInStalemate(ChessGame.TeamColor.BLACK)) {
-            loadMessage.setMessage(loadMessage.getMessage() + "\n" + user.username() + " put " + otherUsername + " in stalemate. Game over.");
+        String outcome = switch (data.game().getStatus()) {
+            case CHECKMATE -> user.username() + " put " + otherUsername + " in checkmate. Game over.";
+            case STALEMATE -> user.username() + " put " + otherUsername + " in stalemate. Game over.";
+            case DRAW_BY_REPETITION -> "The same position has occurred three times. The game is a draw.";
+            case DRAW_BY_INSUFFICIENT_MATERIAL -> "Neither player has enough material left to checkmate. The game is a draw.";
+            case DRAW_BY_FIFTY_MOVE_RULE -> "Fifty moves have passed without a capture or pawn move. The game is a draw.";
+            case CHECK -> user.username() + " put " + otherUsername + " in check.";
+            case ONGOING -> null;
+        };
+        if (outcome != null) {
+            loadMessage.setMessage(loadMessage.getMessage() + "\n" + outcome);
+        }
+        if (data.game().getStatus().isGameOver()) {
             session.getRemote().sendString(gson.toJson(loadMessage));
-        } else if (data.game().isInCheck(ChessGame.TeamColor.WHITE) || data.game().isInCheck(ChessGame.TeamColor.BLACK)) {
-            loadMessage.setMessage(loadMessage.getMessage() + "\n" + user.username() + " put " + otherUsername + " in check.");
         }
         sendOtherClients(session, command, loadMessage);
     }
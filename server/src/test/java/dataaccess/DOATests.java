@@ -1,10 +1,10 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessGameCodec;
 import chess.ChessMove;
 import chess.ChessPosition;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
@@ -206,7 +206,6 @@ public class DOATests {
     @Test
     @DisplayName("Create Game Valid Test")
     void createGameValid() {
-        Gson gson = new Gson();
         ChessGame game = new ChessGame();
         GameDAO.createGame("Potato", "Carrot", "Fruit Fight", game);
         try (Connection conn = DatabaseManager.getConnection()) {
@@ -222,7 +221,7 @@ public class DOATests {
                 assertEquals("Potato", res.getString("white_username"));
                 assertEquals("Carrot", res.getString("black_username"));
                 assertEquals("Fruit Fight", res.getString("game_name"));
-                assertEquals(gson.toJson(game), res.getString("chess_game"));
+                assertEquals(game, ChessGameCodec.decode(res.getBytes("chess_game")));
             }
         } catch (DataAccessException | SQLException e) {
             throw new RuntimeException(e);
@@ -0,0 +1,124 @@
+package chess;
+
+/**
+ * An immutable copy of a game's position, taken after a move has been fully played.
+ * <p>
+ * {@link ChessGame} publishes a new snapshot through a volatile field after every
+ * {@link ChessGame#makeMove(ChessMove)}, and whenever a game is created, loaded or
+ * changed through its setters, so other threads can read the latest position,
+ * serialize it or analyse it without locking, and never see a move that is only half
+ * applied. A snapshot is only the bitboards and a few numbers, so taking one is cheap.
+ */
+public final class BoardSnapshot {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    /** One bitboard per team and piece type, indexed by team ordinal * piece types + type ordinal. */
+    private final long[] pieceBitboards;
+    private final ChessGame.TeamColor turnColor;
+    private final int castlingRights;
+    private final int enPassantSquare;
+    private final int halfmoveClock;
+    private final int plyCount;
+    private final long zobristKey;
+    private final ChessGame.GameStatus status;
+
+    BoardSnapshot(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        pieceBitboards = new long[TYPES.length * 2];
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : TYPES) {
+                pieceBitboards[color.ordinal() * TYPES.length + type.ordinal()] = board.getBitboard(color, type);
+            }
+        }
+        turnColor = game.getTeamTurn();
+        castlingRights = board.getCastlingRights();
+        enPassantSquare = board.getEnPassantSquare();
+        halfmoveClock = game.getHalfmoveClock();
+        plyCount = game.getPlyCount();
+        zobristKey = game.zobristKey();
+        status = game.getStatus();
+    }
+
+    /**
+     * @return the piece on the given square, or null if the square is empty
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        long bit = Bitboard.bit(Bitboard.square(position));
+        for (int i = 0; i < pieceBitboards.length; i++) {
+            if ((pieceBitboards[i] & bit) != 0) {
+                return ChessPiece.of(ChessGame.TeamColor.values()[i / TYPES.length], TYPES[i % TYPES.length]);
+            }
+        }
+        return null;
+    }
+
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[color.ordinal() * TYPES.length + type.ordinal()];
+    }
+
+    public ChessGame.TeamColor getTeamTurn() {
+        return turnColor;
+    }
+
+    /**
+     * @return the castling rights still held, as in {@link ChessBoard#getCastlingRights()}
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn may be captured on en passant, or -1
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return the status of the game for the team to move, as in {@link ChessGame#getStatus()}
+     */
+    public ChessGame.GameStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return a new board holding the snapshot's pieces, castling rights and en passant square, which the caller
+     * is free to change
+     */
+    public ChessBoard toBoard() {
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < pieceBitboards.length; i++) {
+            ChessPiece piece = ChessPiece.of(ChessGame.TeamColor.values()[i / TYPES.length], TYPES[i % TYPES.length]);
+            for (long pieces = pieceBitboards[i]; pieces != 0; pieces &= pieces - 1) {
+                board.addPiece(Bitboard.first(pieces), piece);
+            }
+        }
+        board.setCastlingRights(castlingRights);
+        board.setEnPassantSquare(enPassantSquare);
+        return board;
+    }
+
+    /**
+     * @return a new game in the snapshot's position, for example for analysis on another thread. It has no move
+     * history, so earlier positions do not count towards repetition.
+     */
+    public ChessGame toGame() {
+        return new ChessGame(toBoard(), turnColor, halfmoveClock, plyCount);
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return toGame().toFen();
+    }
+}
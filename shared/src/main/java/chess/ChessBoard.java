@@ -1,37 +1,247 @@
 package chess;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored as bitboards: one 64-bit set per team and piece type, plus an
+ * occupancy set per team and one for the whole board. Square numbering follows
+ * {@link Bitboard}.
+ * <p>
+ * Whether a square is attacked is answered by looking up, from the square itself,
+ * the knight, king, pawn and sliding attacks that could reach it, so the board
+ * keeps no attack state that moves would have to update.
+ * <p>
+ * Castling rights and the en passant square are stored alongside the pieces, so
+ * move generation does not need to look through the move history.
+ * <p>
+ * A Zobrist key of the pieces is built the first time it is asked for and then
+ * kept up to date as pieces are added and cleared, and {@link #zobristKey()} folds in the castling rights and en passant
+ * square to identify the position.
+ * <p>
+ * The move history is kept as the low 15 bits of each packed {@link Move}, two bytes
+ * per move, and {@link #getHistory()} decodes entries only as they are read.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
 
-    private ChessPiece[][] board;
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING_RIGHTS = 15;
 
-    private List<ChessMove> history;
+    /** Marks castling rights or an en passant square that has not been worked out from the history yet. */
+    private static final int UNKNOWN = -2;
+
+    private static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+
+    /** The castling rights that survive a move starting or ending on each square. */
+    private static final int[] CASTLING_MASKS = new int[64];
+    private static final ChessPiece[] PIECES = new ChessPiece[PIECE_TYPES * 2];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[pieceIndex(color, type)] = ChessPiece.of(color, type);
+            }
+        }
+        Arrays.fill(CASTLING_MASKS, ALL_CASTLING_RIGHTS);
+        CASTLING_MASKS[Bitboard.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASKS[Bitboard.square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASKS[Bitboard.square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASKS[Bitboard.square(8, 1)] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASKS[Bitboard.square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASKS[Bitboard.square(8, 8)] &= ~BLACK_KINGSIDE;
+    }
+
+    private long[] pieceBitboards;
+    private long[] teamBitboards;
+    private long occupied;
+
+    private short[] history;
+    private int historySize;
+
+    /**
+     * Boards saved before these two fields existed load with them unknown, and they are then worked out from the
+     * history the first time they are asked for.
+     */
+    private int castlingRights;
+    private int enPassantSquare;
+
+    /**
+     * Zobrist key of the pieces alone, valid only once first computed, which also covers boards built by Gson
+     * without going through addPiece.
+     */
+    private transient long pieceKey;
+    private transient boolean pieceKeyValid;
 
     public ChessBoard() {
-        board = new ChessPiece[8][8];
-        history = new ArrayList<>();
+        pieceBitboards = new long[PIECE_TYPES * 2];
+        teamBitboards = new long[2];
+        history = new short[64];
+        castlingRights = UNKNOWN;
+        enPassantSquare = UNKNOWN;
+    }
+
+    /**
+     * Copies another board, including its history and any Zobrist key it has already built, so the copy can be
+     * changed independently.
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        pieceBitboards = other.pieceBitboards.clone();
+        teamBitboards = other.teamBitboards.clone();
+        occupied = other.occupied;
+        history = Arrays.copyOf(other.history, Math.max(other.historySize, 16));
+        historySize = other.historySize;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        pieceKey = other.pieceKey;
+        pieceKeyValid = other.pieceKeyValid;
+    }
+
+    private static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
+    /**
+     * @return a small code for the piece that fits in four bits, with 0 meaning no piece
+     */
+    static int pieceCode(ChessPiece piece) {
+        return piece == null ? 0 : pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1;
+    }
+
+    /**
+     * @return the piece a {@link #pieceCode(ChessPiece)} stands for
+     */
+    static ChessPiece pieceFromCode(int code) {
+        return code == 0 ? null : PIECES[code - 1];
     }
 
     public void logMove(ChessMove move) {
-        history.add(move);
+        logMove(Move.base(move));
+    }
+
+    /**
+     * Adds a packed {@link Move} to the history, keeping only its squares and promotion
+     */
+    void logMove(int move) {
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, Math.max(historySize * 2, 16));
+        }
+        history[historySize++] = (short) Move.base(move);
+    }
+
+    /**
+     * Drops the most recent entry from the move history, used when a move is taken back
+     */
+    public void removeLastMove() {
+        if (historySize == 0) {
+            throw new NoSuchElementException();
+        }
+        historySize--;
+    }
+
+    /**
+     * @return the number of moves in the history
+     */
+    int getHistorySize() {
+        return historySize;
+    }
+
+    /**
+     * @return the move at the given index of the history as a packed {@link Move} without flags
+     */
+    int getHistoryMove(int index) {
+        return history[index];
+    }
+
+    /**
+     * @return the castling rights still held, as a combination of the WHITE_KINGSIDE, WHITE_QUEENSIDE,
+     * BLACK_KINGSIDE and BLACK_QUEENSIDE bits
+     */
+    public int getCastlingRights() {
+        if (castlingRights == UNKNOWN) {
+            castlingRights = ALL_CASTLING_RIGHTS;
+            for (int i = 0; i < historySize; i++) {
+                updateCastlingRights(Move.from(history[i]), Move.to(history[i]));
+            }
+        }
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * Drops the castling rights a move gives up by moving a king or rook, or by capturing a rook in its corner
+     */
+    void updateCastlingRights(int from, int to) {
+        castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+    }
+
+    /**
+     * @return the square a pawn skipped over with a two-square advance on the last move, where it may be captured
+     * en passant, or -1 if the last move was not such an advance
+     */
+    public int getEnPassantSquare() {
+        if (enPassantSquare == UNKNOWN) {
+            enPassantSquare = enPassantSquareFromHistory();
+        }
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    private int enPassantSquareFromHistory() {
+        if (historySize == 0) {
+            return -1;
+        }
+        int from = Move.from(history[historySize - 1]);
+        int to = Move.to(history[historySize - 1]);
+        ChessPiece piece = getPiece(to);
+        if (piece == null || piece.getPieceType() != ChessPiece.PieceType.PAWN || Math.abs(to - from) != 16) {
+            return -1;
+        }
+        return (from + to) / 2;
     }
 
     public ChessMove getLastMove() {
-        return history.isEmpty() ? null : history.getLast();
+        return historySize == 0 ? null : Move.toChessMove(history[historySize - 1]);
     }
 
+    /**
+     * @return a read-only view of the move history that follows later moves and takebacks
+     */
     public List<ChessMove> getHistory() {
-        return history;
+        return new HistoryView();
+    }
+
+    private class HistoryView extends AbstractList<ChessMove> implements RandomAccess {
+        @Override
+        public ChessMove get(int index) {
+            if (index < 0 || index >= historySize) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return Move.toChessMove(history[index]);
+        }
+
+        @Override
+        public int size() {
+            return historySize;
+        }
     }
 
     /**
@@ -41,7 +251,28 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow()-1][position.getColumn()-1] = piece;
+        addPiece(Bitboard.square(position), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard, replacing anything already on the square
+     *
+     * @param square where to add the piece to
+     * @param piece  the piece to add, or null to empty the square
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        clearPiece(square);
+        if (piece == null) {
+            return;
+        }
+        long bit = Bitboard.bit(square);
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceBitboards[index] |= bit;
+        teamBitboards[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+        if (pieceKeyValid) {
+            pieceKey ^= Zobrist.piece(index, square);
+        }
     }
 
     /**
@@ -52,44 +283,169 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow()-1][position.getColumn()-1];
+        return getPiece(Bitboard.square(position));
+    }
+
+    /**
+     * Gets a chess piece on the chessboard
+     *
+     * @param square The square to get the piece from
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        long bit = Bitboard.bit(square);
+        if ((occupied & bit) == 0) {
+            return null;
+        }
+        int offset = (teamBitboards[0] & bit) != 0 ? 0 : PIECE_TYPES;
+        for (int i = offset; i < offset + PIECE_TYPES; i++) {
+            if ((pieceBitboards[i] & bit) != 0) {
+                return PIECES[i];
+            }
+        }
+        return null;
     }
 
     public void clearPiece(ChessPosition position) {
-        board[position.getRow()-1][position.getColumn()-1] = null;
+        clearPiece(Bitboard.square(position));
+    }
+
+    public void clearPiece(int square) {
+        long bit = Bitboard.bit(square);
+        if ((occupied & bit) == 0) {
+            return;
+        }
+        long mask = ~bit;
+        for (int i = 0; i < pieceBitboards.length; i++) {
+            if ((pieceBitboards[i] & bit) != 0) {
+                if (pieceKeyValid) {
+                    pieceKey ^= Zobrist.piece(i, square);
+                }
+                pieceBitboards[i] &= mask;
+            }
+        }
+        teamBitboards[0] &= mask;
+        teamBitboards[1] &= mask;
+        occupied &= mask;
     }
 
     /**
-     * Sets the board to the default starting board
-     * (How the game of chess normally starts)
+     * @return whether any piece of the given team attacks the square
      */
-    public void resetBoard() {
-        board = new ChessPiece[8][8];
-        board[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        board[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        board[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-
-        board[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        board[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        board[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        board[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+    public boolean isAttacked(int square, ChessGame.TeamColor byColor) {
+        return MoveGenerator.attackers(this, square, byColor, occupied, getOccupancy(byColor)) != 0;
+    }
 
-        for(int i = 0; i < 8; i++){
-            board[1][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+    /**
+     * The key does not include whose turn it is, which the board does not know; see {@link ChessGame#zobristKey()}.
+     * The en passant square only counts when a pawn is in place to capture on it, so positions that offer the same
+     * moves get the same key.
+     *
+     * @return a 64-bit Zobrist key of the pieces, castling rights and en passant square
+     */
+    public long zobristKey() {
+        long key = pieceKey() ^ Zobrist.castling(getCastlingRights());
+        int enPassant = getEnPassantSquare();
+        if (enPassant >= 0) {
+            ChessGame.TeamColor capturing = Bitboard.row(enPassant) == 3 ? ChessGame.TeamColor.BLACK :
+                    ChessGame.TeamColor.WHITE;
+            ChessGame.TeamColor pushed = capturing == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK :
+                    ChessGame.TeamColor.WHITE;
+            if ((Bitboard.pawnAttacks(pushed, enPassant) & getBitboard(capturing, ChessPiece.PieceType.PAWN)) != 0) {
+                key ^= Zobrist.enPassant(enPassant);
+            }
         }
+        return key;
+    }
 
-        for(int i = 0; i < 8; i++) {
-            board[6][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+    private long pieceKey() {
+        if (!pieceKeyValid) {
+            pieceKey = 0;
+            for (int i = 0; i < pieceBitboards.length; i++) {
+                for (long pieces = pieceBitboards[i]; pieces != 0; pieces &= pieces - 1) {
+                    pieceKey ^= Zobrist.piece(i, Bitboard.first(pieces));
+                }
+            }
+            pieceKeyValid = true;
         }
+        return pieceKey;
+    }
+
+    /**
+     * @return the set of squares holding the given team's pieces of the given type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * Each team and piece type has its own bitboard, so its population count is the piece count and never needs a
+     * separate counter to be kept in step.
+     *
+     * @return how many of the given team's pieces of the given type are on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return Long.bitCount(pieceBitboards[pieceIndex(color, type)]);
+    }
+
+    /**
+     * The king bitboards are updated by every addPiece and clearPiece, including the temporary edits made while
+     * testing moves, so this never needs to search the board.
+     *
+     * @return the square the given team's king is on, or -1 if it has no king on the board
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        long king = pieceBitboards[pieceIndex(color, ChessPiece.PieceType.KING)];
+        return king == 0 ? -1 : Bitboard.first(king);
+    }
+
+    /**
+     * @return the position of the given team's king, or null if it has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = getKingSquare(color);
+        return square < 0 ? null : Bitboard.position(square);
+    }
+
+    /**
+     * @return the set of squares holding any of the given team's pieces
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return teamBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return the set of squares holding any piece
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * Sets the board to the default starting board
+     * (How the game of chess normally starts)
+     */
+    public void resetBoard() {
+        Arrays.fill(pieceBitboards, 0L);
+        setStartingPieces(ChessGame.TeamColor.WHITE, Bitboard.RANK_1, Bitboard.RANK_1 << 8);
+        setStartingPieces(ChessGame.TeamColor.BLACK, Bitboard.RANK_8, Bitboard.RANK_8 >>> 8);
+        teamBitboards[0] = Bitboard.RANK_1 | (Bitboard.RANK_1 << 8);
+        teamBitboards[1] = Bitboard.RANK_8 | (Bitboard.RANK_8 >>> 8);
+        occupied = teamBitboards[0] | teamBitboards[1];
+        castlingRights = ALL_CASTLING_RIGHTS;
+        enPassantSquare = -1;
+        pieceKeyValid = false;
+    }
+
+    private void setStartingPieces(ChessGame.TeamColor color, long backRank, long pawnRank) {
+        pieceBitboards[pieceIndex(color, ChessPiece.PieceType.ROOK)] = backRank & (Bitboard.FILE_A | Bitboard.FILE_H);
+        pieceBitboards[pieceIndex(color, ChessPiece.PieceType.KNIGHT)] = backRank & ((Bitboard.FILE_A << 1) |
+                (Bitboard.FILE_A << 6));
+        pieceBitboards[pieceIndex(color, ChessPiece.PieceType.BISHOP)] = backRank & ((Bitboard.FILE_A << 2) |
+                (Bitboard.FILE_A << 5));
+        pieceBitboards[pieceIndex(color, ChessPiece.PieceType.QUEEN)] = backRank & (Bitboard.FILE_A << 3);
+        pieceBitboards[pieceIndex(color, ChessPiece.PieceType.KING)] = backRank & (Bitboard.FILE_A << 4);
+        pieceBitboards[pieceIndex(color, ChessPiece.PieceType.PAWN)] = pawnRank;
     }
 
     @Override
@@ -98,18 +454,57 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(pieceKey());
     }
 
     @Override
     public String toString() {
-        return "ChessBoard{" +
-                "board=" + Arrays.toString(board) +
-                '}';
+        StringBuilder output = new StringBuilder("ChessBoard{\n");
+        for (int row = 8; row >= 1; row--) {
+            output.append('|');
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = getPiece(Bitboard.square(row, col));
+                output.append(piece == null ? ' ' : pieceChar(piece)).append('|');
+            }
+            output.append('\n');
+        }
+        return output.append('}').toString();
+    }
+
+    /**
+     * @return the piece's letter as used in FEN and {@link #toString()}: upper case for white, lower case for black
+     */
+    static char pieceChar(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    /**
+     * @return the piece a {@link #pieceChar(ChessPiece)} letter stands for, or null if it is not a piece letter
+     */
+    static ChessPiece pieceFromChar(char c) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+        return type == null ? null : ChessPiece.of(color, type);
     }
 }
@@ -12,11 +12,45 @@ public class ChessGame {
 
     private TeamColor turnColor;
     private ChessBoard board;
-    private static final int[] X_DIRS = {-1, 1, 0, 0, -1, -1, 1, 1};
-    private static final int[] Y_DIRS = {0, 0, -1, 1, -1, 1, -1, 1};
 
     private boolean isOver;
 
+    /** Plies since the last capture or pawn move, saturating at {@link #MAX_HALFMOVE_CLOCK}. */
+    private int halfmoveClock;
+
+    /**
+     * Zobrist keys of the positions before each of the last {@link #REPETITION_WINDOW} plies, indexed by ply number
+     * modulo the window. Only the last halfmoveClock entries can repeat the current position, since a capture or pawn
+     * move can never be undone. Serialized with the game so a reloaded game still sees its earlier positions.
+     */
+    private long[] positionKeys;
+    private int plyCount;
+
+    static final int REPETITION_WINDOW = 128;
+    private static final int MAX_HALFMOVE_CLOCK = 255;
+    private static final int FIFTY_MOVE_PLIES = 100;
+
+    /**
+     * One packed record per move played through doMove: the {@link Move} int in the low 32 bits, then the captured
+     * piece, the piece that moved, and the castling rights, en passant square and halfmove clock from before the
+     * move. Not serialized; a game loaded from JSON starts with nothing to undo.
+     */
+    private transient long[] undoStack;
+    private transient int undoCount;
+
+    /**
+     * The status worked out by the last makeMove or getStatus, and the key of the position it was worked out for so
+     * changes made straight to the board are noticed. Cleared whenever a move is played or taken back.
+     */
+    private transient GameStatus status;
+    private transient long statusKey;
+
+    /**
+     * The position after the last completed makeMove, or after the game was created, loaded or changed through its
+     * setters. Replaced as a whole so other threads never see half a move.
+     */
+    private transient volatile BoardSnapshot snapshot;
+
     public boolean isIsOver() {
         return isOver;
     }
@@ -30,6 +64,50 @@ public class ChessGame {
         board = new ChessBoard();
         board.resetBoard();
         isOver = false;
+        publishSnapshot();
+    }
+
+    ChessGame(ChessBoard board, TeamColor turnColor, int halfmoveClock, int plyCount) {
+        this.board = board;
+        this.turnColor = turnColor;
+        this.halfmoveClock = Math.min(halfmoveClock, MAX_HALFMOVE_CLOCK);
+        this.plyCount = plyCount;
+        publishSnapshot();
+    }
+
+    /**
+     * Sets up a game from a position in Forsyth-Edwards Notation, including side to move, castling rights, en
+     * passant square and, when present, the move clocks. The game has no move history.
+     *
+     * @param fen the position, for example {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not a valid FEN record
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.read(fen);
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.write(this);
+    }
+
+    /**
+     * Copies another game and its board so the copy can be played on independently, for example by another
+     * thread. Moves made before the copy cannot be undone on it.
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        turnColor = other.turnColor;
+        board = new ChessBoard(other.board);
+        isOver = other.isOver;
+        halfmoveClock = other.halfmoveClock;
+        positionKeys = other.positionKeys == null ? null : other.positionKeys.clone();
+        plyCount = other.plyCount;
+        publishSnapshot();
     }
 
     /**
@@ -46,6 +124,8 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         turnColor = team;
+        status = null;
+        publishSnapshot();
     }
 
     @Override
@@ -59,7 +139,14 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(turnColor, board);
+        return 31 * Objects.hashCode(turnColor) + Objects.hashCode(board);
+    }
+
+    /**
+     * @return the board's {@link ChessBoard#zobristKey()} with whose turn it is folded in
+     */
+    public long zobristKey() {
+        return board.zobristKey() ^ (turnColor == TeamColor.BLACK ? Zobrist.BLACK_TO_MOVE : 0);
     }
 
     /**
@@ -70,6 +157,26 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * The state of a game from the point of view of the team whose turn it is
+     */
+    public enum GameStatus {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        DRAW_BY_REPETITION,
+        DRAW_BY_FIFTY_MOVE_RULE,
+        DRAW_BY_INSUFFICIENT_MATERIAL;
+
+        /**
+         * @return whether no more moves can be played
+         */
+        public boolean isGameOver() {
+            return this != ONGOING && this != CHECK;
+        }
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -82,100 +189,208 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        Collection<ChessMove> moves = piece.pieceMoves(board, startPosition);
-        List<ChessMove> vMoves = new ArrayList<>();
-        for (ChessMove move : moves) {
-            if (piece.getPieceType() == ChessPiece.PieceType.KING &&
-                    Math.abs(move.getStartPosition().getColumn()-move.getEndPosition().getColumn()) == 2) {
-                if (isInCheck(piece.getTeamColor())) {
-                    continue;
-                }
-                ChessPosition moveThroughPosition = new ChessPosition(move.getStartPosition().getRow(),
-                        move.getStartPosition().getColumn() + (move.getEndPosition().getColumn() -
-                                move.getStartPosition().getColumn())/2);
-                board.addPiece(moveThroughPosition, new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.KING));
-                board.clearPiece(move.getStartPosition());
-                if (isInCheck(piece.getTeamColor())) {
-                    board.addPiece(move.getStartPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.KING));
-                    board.clearPiece(moveThroughPosition);
-                    continue;
-                }
-                board.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.KING));
-                board.clearPiece(moveThroughPosition);
-                if (isInCheck(piece.getTeamColor())) {
-                    board.addPiece(move.getStartPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.KING));
-                    board.clearPiece(move.getEndPosition());
-                    continue;
-                }
-                board.addPiece(move.getStartPosition(), new ChessPiece(piece.getTeamColor(), ChessPiece.PieceType.KING));
-                board.clearPiece(move.getEndPosition());
-                vMoves.add(move);
-            } else {
-                boolean validMove = true;
-                ChessPiece tmp = board.getPiece(move.getEndPosition());
-                board.addPiece(move.getEndPosition(), piece);
-                board.clearPiece(move.getStartPosition());
-                if (isInCheck(piece.getTeamColor())) {
-                    validMove = false;
-                }
-                board.addPiece(move.getStartPosition(), piece);
-                board.addPiece(move.getEndPosition(), tmp);
-                if (validMove) {
-                    vMoves.add(move);
-                }
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(board, piece.getTeamColor(), Bitboard.bit(Bitboard.square(startPosition)), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Gets every legal move for one team
+     *
+     * @param teamColor the team to get moves for
+     * @return every move the team could legally make if it were their turn
+     */
+    public Collection<ChessMove> legalMoves(TeamColor teamColor) {
+        MoveList moves = new MoveList();
+        legalMoves(teamColor, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Appends every legal move for one team to a reusable buffer, without creating a ChessMove for each
+     *
+     * @param teamColor the team to get moves for
+     * @param moves     the list the packed moves are appended to
+     */
+    public void legalMoves(TeamColor teamColor, MoveList moves) {
+        MoveGenerator.generate(board, teamColor, -1L, moves);
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the current position, the standard way to check a move
+     * generator against published results. The game is left as it was found.
+     *
+     * @param depth how many plies deep to count
+     * @return the number of distinct move sequences of exactly that many plies
+     */
+    public long perft(int depth) {
+        return perft(depth, new MoveList[Math.max(depth, 1)]);
+    }
+
+    /**
+     * Splits {@link #perft(int)} by the first move, for narrowing down which branch a wrong count comes from.
+     *
+     * @param depth how many plies deep to count, including the first move
+     * @return the node count below each legal move, in generation order
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        MoveList[] lists = new MoveList[Math.max(depth, 1)];
+        MoveList moves = new MoveList();
+        legalMoves(turnColor, moves);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            doMove(moves.get(i));
+            counts.put(Move.toChessMove(moves.get(i)), perft(depth - 1, lists));
+            undoMove();
+        }
+        return counts;
+    }
+
+    private long perft(int depth, MoveList[] lists) {
+        if (depth <= 0) {
+            return 1;
+        }
+        if (lists[depth - 1] == null) {
+            lists[depth - 1] = new MoveList();
+        }
+        MoveList moves = lists[depth - 1];
+        moves.clear();
+        legalMoves(turnColor, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            doMove(moves.get(i));
+            nodes += perft(depth - 1, lists);
+            undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Works out the flags of a move that did not come from the move generator.
+     */
+    private int encode(ChessMove move) {
+        int from = Bitboard.square(move.getStartPosition());
+        int to = Bitboard.square(move.getEndPosition());
+        ChessPiece piece = board.getPiece(from);
+        int flags = board.getPiece(to) != null ? Move.CAPTURE : 0;
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs((from & 7) - (to & 7)) == 2) {
+            flags |= Move.CASTLE;
+        } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (flags == 0 && (from & 7) != (to & 7)) {
+                flags = Move.CAPTURE | Move.EN_PASSANT;
+            } else if (Math.abs(to - from) == 16) {
+                flags = Move.DOUBLE_PUSH;
             }
         }
-        return vMoves;
+        return Move.encode(from, to, move.getPromotionPiece(), flags);
     }
 
-    private boolean doCastleMove(ChessMove move) {
-        ChessPiece piece = board.getPiece(move.getStartPosition());
-        if (move.equals(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 3), null))) {
-            board.addPiece(new ChessPosition(1, 3), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.KING));
-            board.addPiece(new ChessPosition(1, 4), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-            board.clearPiece(new ChessPosition(1, 1));
-            board.clearPiece(new ChessPosition(1, 5));
-        } else if (move.equals(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null))) {
-            board.addPiece(new ChessPosition(1, 7), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.KING));
-            board.addPiece(new ChessPosition(1, 6), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-            board.clearPiece(new ChessPosition(1, 8));
-            board.clearPiece(new ChessPosition(1, 5));
-        } else if (move.equals(new ChessMove(new ChessPosition(8, 5), new ChessPosition(8, 3), null))) {
-            board.addPiece(new ChessPosition(8, 3), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.KING));
-            board.addPiece(new ChessPosition(8, 4), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-            board.clearPiece(new ChessPosition(8, 1));
-            board.clearPiece(new ChessPosition(8, 5));
-        } else if (move.equals(new ChessMove(new ChessPosition(8, 5), new ChessPosition(8, 7), null))) {
-            board.addPiece(new ChessPosition(8, 7), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.KING));
-            board.addPiece(new ChessPosition(8, 6), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-            board.clearPiece(new ChessPosition(8, 8));
-            board.clearPiece(new ChessPosition(8, 5));
+    /**
+     * Plays a move on the board without checking that it is legal and hands the turn to the other team. Castling
+     * moves the rook as well, en passant removes the captured pawn, and promotions replace the pawn. Enough is
+     * recorded for {@link #undoMove()} to restore the exact previous state.
+     *
+     * @param move a move generated for the piece at its start position
+     */
+    public void doMove(ChessMove move) {
+        doMove(encode(move));
+    }
+
+    /**
+     * Plays a packed move from the move generator, trusting its flags. Otherwise the same as
+     * {@link #doMove(ChessMove)}.
+     *
+     * @param move a move generated for the team whose turn it is
+     */
+    public void doMove(int move) {
+        long key = zobristKey();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        int castlingRights = board.getCastlingRights();
+        int enPassantSquare = board.getEnPassantSquare();
+        ChessPiece captured;
+        if (Move.isEnPassant(move)) {
+            int square = (from & ~7) | (to & 7);
+            captured = board.getPiece(square);
+            board.clearPiece(square);
+        } else {
+            captured = board.getPiece(to);
+        }
+        board.addPiece(to, Move.isPromotion(move) ? ChessPiece.of(piece.getTeamColor(), Move.promotion(move)) : piece);
+        board.clearPiece(from);
+        if (Move.isCastle(move)) {
+            moveCastlingRook(from, to, false);
+        }
+        board.updateCastlingRights(from, to);
+        board.setEnPassantSquare(Move.isDoublePush(move) ? (from + to) / 2 : -1);
+        board.logMove(move);
+        pushUndo(move & 0xFFFFFFFFL | (long) ChessBoard.pieceCode(captured) << 32 |
+                (long) ChessBoard.pieceCode(piece) << 36 | (long) castlingRights << 40 |
+                (long) (enPassantSquare + 1) << 44 | (long) halfmoveClock << 51);
+        if (positionKeys == null) {
+            positionKeys = new long[REPETITION_WINDOW];
+        }
+        positionKeys[plyCount++ & (REPETITION_WINDOW - 1)] = key;
+        halfmoveClock = captured != null || piece.getPieceType() == ChessPiece.PieceType.PAWN ? 0 :
+                Math.min(halfmoveClock + 1, MAX_HALFMOVE_CLOCK);
+        turnColor = opponent(turnColor);
+        status = null;
+    }
+
+    /**
+     * Takes back the most recent {@link #doMove(ChessMove)}, including its entry in the board history.
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to undo.");
         }
-        if (isInCheck(piece.getTeamColor())) {
-            if (move.equals(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 3), null))) {
-                board.addPiece(new ChessPosition(1, 5), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.KING));
-                board.addPiece(new ChessPosition(1, 1), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-                board.clearPiece(new ChessPosition(1, 3));
-                board.clearPiece(new ChessPosition(1, 4));
-            } else if (move.equals(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 7), null))) {
-                board.addPiece(new ChessPosition(1, 5), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.KING));
-                board.addPiece(new ChessPosition(1, 8), new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-                board.clearPiece(new ChessPosition(1, 7));
-                board.clearPiece(new ChessPosition(1, 6));
-            } else if (move.equals(new ChessMove(new ChessPosition(8, 5), new ChessPosition(8, 3), null))) {
-                board.addPiece(new ChessPosition(8, 5), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.KING));
-                board.addPiece(new ChessPosition(8, 1), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-                board.clearPiece(new ChessPosition(8, 3));
-                board.clearPiece(new ChessPosition(8, 4));
-            } else if (move.equals(new ChessMove(new ChessPosition(8, 5), new ChessPosition(8, 7), null))) {
-                board.addPiece(new ChessPosition(8, 5), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.KING));
-                board.addPiece(new ChessPosition(8, 8), new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-                board.clearPiece(new ChessPosition(8, 7));
-                board.clearPiece(new ChessPosition(8, 6));
+        long record = undoStack[--undoCount];
+        int move = (int) record;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece captured = ChessBoard.pieceFromCode((int) (record >>> 32 & 15));
+        ChessPiece piece = ChessBoard.pieceFromCode((int) (record >>> 36 & 15));
+        board.addPiece(from, piece);
+        if (Move.isEnPassant(move)) {
+            board.clearPiece(to);
+            board.addPiece((from & ~7) | (to & 7), captured);
+        } else {
+            board.addPiece(to, captured);
+            if (Move.isCastle(move)) {
+                moveCastlingRook(from, to, true);
             }
-            return false;
         }
-        return true;
+        board.setCastlingRights((int) (record >>> 40 & 15));
+        board.setEnPassantSquare((int) (record >>> 44 & 127) - 1);
+        board.removeLastMove();
+        halfmoveClock = (int) (record >>> 51 & MAX_HALFMOVE_CLOCK);
+        plyCount--;
+        turnColor = opponent(turnColor);
+        status = null;
+    }
+
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean undo) {
+        int rookCorner = kingTo > kingFrom ? kingFrom + 3 : kingFrom - 4;
+        int rookTarget = (kingFrom + kingTo) / 2;
+        int from = undo ? rookTarget : rookCorner;
+        int to = undo ? rookCorner : rookTarget;
+        board.addPiece(to, board.getPiece(from));
+        board.clearPiece(from);
+    }
+
+    private void pushUndo(long record) {
+        if (undoStack == null) {
+            undoStack = new long[64];
+        } else if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        }
+        undoStack[undoCount++] = record;
     }
 
     /**
@@ -190,109 +405,162 @@ public class ChessGame {
             throw new InvalidMoveException("Invalid move: No piece exists at location.");
         } else if (piece.getTeamColor() != turnColor) {
             throw new InvalidMoveException("Invalid move: Not your turn.");
-        } else {
-            Collection<ChessMove> moves = piece.pieceMoves(board, move.getStartPosition());
-            boolean validMove = false;
-            for (ChessMove possibleMove : moves) {
-                if (possibleMove.equals(move)) {
-                    validMove = true;
-                    break;
-                }
-            }
-            if (!validMove) {
-                throw new InvalidMoveException("Invalid move: Not in available moves.");
-            }
         }
-        if (piece.getPieceType() == ChessPiece.PieceType.KING &&
-                Math.abs(move.getStartPosition().getColumn()-move.getEndPosition().getColumn()) == 2) {
-            boolean success = doCastleMove(move);
-            if (!success) {
-                throw new InvalidMoveException("Invalid move: this move results in check.");
-            }
-        } else {
-            ChessMove lastMove = board.getLastMove();
-            if (piece.getPieceType() == ChessPiece.PieceType.PAWN && piece.getTeamColor() == TeamColor.WHITE &&
-                    move.getStartPosition().getRow() == 5 && lastMove.getEndPosition().getRow() == 5 &&
-                    board.getPiece(lastMove.getEndPosition()).getPieceType() == ChessPiece.PieceType.PAWN &&
-                    Math.abs(lastMove.getEndPosition().getRow()-lastMove.getStartPosition().getRow()) == 2 &&
-                    board.getPiece(lastMove.getEndPosition()).getTeamColor() != piece.getTeamColor() &&
-                    Math.abs(lastMove.getEndPosition().getColumn()-move.getStartPosition().getColumn()) == 1) {
-                board.addPiece(move.getEndPosition(), piece);
-                board.clearPiece(move.getStartPosition());
-                board.clearPiece(lastMove.getEndPosition());
-            } else if (piece.getPieceType() == ChessPiece.PieceType.PAWN && piece.getTeamColor() == TeamColor.BLACK &&
-                    move.getStartPosition().getRow() == 4 && lastMove.getEndPosition().getRow() == 4 &&
-                    board.getPiece(lastMove.getEndPosition()).getPieceType() == ChessPiece.PieceType.PAWN &&
-                    Math.abs(lastMove.getEndPosition().getRow()-lastMove.getStartPosition().getRow()) == 2 &&
-                    board.getPiece(lastMove.getEndPosition()).getTeamColor() != piece.getTeamColor() &&
-                    Math.abs(lastMove.getEndPosition().getColumn()-move.getStartPosition().getColumn()) == 1) {
-                board.addPiece(move.getEndPosition(), piece);
-                board.clearPiece(move.getStartPosition());
-                board.clearPiece(lastMove.getEndPosition());
-            } else {
-                ChessPiece tmp = board.getPiece(move.getEndPosition());
-                if (move.getPromotionPiece() != null) {
-                    board.addPiece(move.getEndPosition(), new ChessPiece(piece.getTeamColor(), move.getPromotionPiece()));
-                } else {
-                    board.addPiece(move.getEndPosition(), piece);
-                }
-                board.clearPiece(move.getStartPosition());
-                if (isInCheck(piece.getTeamColor())) {
-                    board.addPiece(move.getStartPosition(), piece);
-                    board.addPiece(move.getEndPosition(), tmp);
-                    throw new InvalidMoveException("Invalid move: This move results in check.");
-                }
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(board, turnColor, Bitboard.bit(Bitboard.square(move.getStartPosition())), moves);
+        int legal = moves.find(move);
+        if (legal == Move.NONE) {
+            if (piece.pieceMoves(board, move.getStartPosition()).contains(move)) {
+                throw new InvalidMoveException("Invalid move: This move results in check.");
             }
+            throw new InvalidMoveException("Invalid move: Not in available moves.");
         }
-        board.logMove(move);
-        turnColor = turnColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
-        if (isInCheckmate(turnColor) || isInStalemate(turnColor)) {
+        doMove(legal);
+        if (getStatus().isGameOver()) {
             isOver = true;
         }
+        publishSnapshot();
     }
 
-    private ChessPosition getKingLocation(TeamColor teamColor) {
-        ChessPosition kingLocation = null;
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(i, j));
-                if (piece != null && piece.getTeamColor() == teamColor &&
-                        piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    kingLocation = new ChessPosition(i, j);
-                }
-            }
+    /**
+     * Returns an immutable copy of the position as it stood after the last {@link #makeMove(ChessMove)}. Other
+     * threads may call this while the game is being played; they always get a complete position, never one in the
+     * middle of a move or of a search running {@link #doMove(int)} and {@link #undoMove()}. Reading it never
+     * touches the live game, since a snapshot is also published whenever a game is created, loaded, given a new
+     * board or told whose turn it is.
+     *
+     * @return the latest snapshot of the game
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Replaces the published snapshot with one of the current position. Only the thread playing the game may call
+     * this, because building a snapshot works out the status and Zobrist key on the live game.
+     */
+    void publishSnapshot() {
+        snapshot = new BoardSnapshot(this);
+    }
+
+    /**
+     * Works out whether the team to move is in check, checkmate or stalemate, or whether the game is drawn, with a
+     * single pass over the position. The result is kept until the next move, so asking again is free. Checkmate and
+     * stalemate take precedence over the draw rules, and the draws over check.
+     *
+     * @return the status of the game for the team whose turn it is
+     */
+    public GameStatus getStatus() {
+        long key = zobristKey();
+        if (status == null || statusKey != key) {
+            status = computeStatus();
+            statusKey = key;
+        }
+        return status;
+    }
+
+    private GameStatus computeStatus() {
+        boolean check = isInCheck(turnColor);
+        if (!hasAnyLegalMove(turnColor)) {
+            return check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        } else if (isDrawByRepetition()) {
+            return GameStatus.DRAW_BY_REPETITION;
+        } else if (isDrawByInsufficientMaterial()) {
+            return GameStatus.DRAW_BY_INSUFFICIENT_MATERIAL;
+        } else if (isDrawByFiftyMoveRule()) {
+            return GameStatus.DRAW_BY_FIFTY_MOVE_RULE;
+        }
+        return check ? GameStatus.CHECK : GameStatus.ONGOING;
+    }
+
+    /**
+     * @return the number of plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of plies played, counted from the start of the game when it was loaded from FEN
+     */
+    int getPlyCount() {
+        return plyCount;
+    }
+
+    /**
+     * @return how many earlier positions could still be repeated, which is how many keys a saved game has to keep
+     */
+    int getRepetitionWindow() {
+        return positionKeys == null ? 0 : Math.min(Math.min(halfmoveClock, plyCount), REPETITION_WINDOW);
+    }
+
+    /**
+     * @return the Zobrist key of the position the given number of plies before the current one
+     */
+    long getPositionKey(int pliesBack) {
+        return positionKeys[(plyCount - pliesBack) & (REPETITION_WINDOW - 1)];
+    }
+
+    void setPositionKey(int pliesBack, long key) {
+        if (positionKeys == null) {
+            positionKeys = new long[REPETITION_WINDOW];
+        }
+        positionKeys[(plyCount - pliesBack) & (REPETITION_WINDOW - 1)] = key;
+    }
+
+    /**
+     * Determines if the current position has now occurred three times with the same player to move. Only the
+     * positions since the last capture or pawn move are compared, and only every other one, so the check is bounded
+     * by the fifty-move rule.
+     *
+     * @return True if the game is drawn by threefold repetition
+     */
+    public boolean isDrawByRepetition() {
+        if (positionKeys == null) {
+            return false;
         }
-        return kingLocation;
-    }
-
-    private Collection<ChessMove> getAllMoves(TeamColor teamColor) {
-        List<ChessMove> moves = new ArrayList<>();
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    moves.addAll(piece.pieceMoves(board, position));
-                }
+        long key = zobristKey();
+        int repetitions = 0;
+        int limit = Math.min(Math.min(halfmoveClock, plyCount), REPETITION_WINDOW);
+        for (int back = 4; back <= limit; back += 2) {
+            if (positionKeys[(plyCount - back) & (REPETITION_WINDOW - 1)] == key && ++repetitions == 2) {
+                return true;
             }
         }
-        return moves;
-    }
-
-    private Collection<ChessPosition> getTargetedSquares(TeamColor teamColor) {
-        Set<ChessPosition> targetedSquares = new HashSet<>();
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    targetedSquares.addAll(piece.pieceTargets(board, position));
-                }
+        return false;
+    }
+
+    /**
+     * Determines if neither team has the pieces left to deliver checkmate: bare kings, a single knight or bishop, or
+     * any number of bishops that all stand on squares of one color.
+     *
+     * @return True if the game is drawn by insufficient material
+     */
+    public boolean isDrawByInsufficientMaterial() {
+        int knights = 0;
+        for (TeamColor color : TeamColor.values()) {
+            if (board.getPieceCount(color, ChessPiece.PieceType.PAWN) > 0 ||
+                    board.getPieceCount(color, ChessPiece.PieceType.ROOK) > 0 ||
+                    board.getPieceCount(color, ChessPiece.PieceType.QUEEN) > 0) {
+                return false;
             }
+            knights += board.getPieceCount(color, ChessPiece.PieceType.KNIGHT);
+        }
+        long bishops = board.getBitboard(TeamColor.WHITE, ChessPiece.PieceType.BISHOP) |
+                board.getBitboard(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        if (knights + Long.bitCount(bishops) <= 1) {
+            return true;
         }
-        return targetedSquares;
+        return knights == 0 && ((bishops & Bitboard.LIGHT_SQUARES) == 0 || (bishops & ~Bitboard.LIGHT_SQUARES) == 0);
     }
-    
+
+    /**
+     * @return True if fifty moves by each player have passed without a capture or pawn move
+     */
+    public boolean isDrawByFiftyMoveRule() {
+        return halfmoveClock >= FIFTY_MOVE_PLIES;
+    }
+
     /**
      * Determines if the given team is in check
      *
@@ -300,31 +568,14 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingLocation = getKingLocation(teamColor);
-        Collection<ChessPosition> targetedSquares = getTargetedSquares(
-                teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
-        return targetedSquares.contains(kingLocation);
-    }
-
-    private boolean possibleSacrifice(ChessPosition targetPosition, TeamColor teamColor) {
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor &&
-                        piece.pieceTargets(board, position).contains(targetPosition)) {
-                    ChessPiece tmp = board.getPiece(targetPosition);
-                    board.addPiece(targetPosition, piece);
-                    board.clearPiece(position);
-                    if (!isInCheck(teamColor)) {
-                        return true;
-                    }
-                    board.addPiece(position, piece);
-                    board.addPiece(targetPosition, tmp);
-                }
-            }
-        }
-        return false;
+        int kingSquare = board.getKingSquare(teamColor);
+        TeamColor them = opponent(teamColor);
+        return kingSquare >= 0 && MoveGenerator.attackers(board, kingSquare, them, board.getOccupancy(),
+                board.getOccupancy(them)) != 0;
+    }
+
+    private static TeamColor opponent(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -334,33 +585,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        ChessPosition kingLocation = getKingLocation(teamColor);
-        Collection<ChessPosition> targetedSquares = getTargetedSquares(
-                teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
-        if (!targetedSquares.contains(kingLocation)) {
-            return false;
-        }
-        for (int i = 0; i < 8; i++) {
-            if (1 <= kingLocation.getRow() + Y_DIRS[i] && kingLocation.getRow() + Y_DIRS[i] <= 8 &&
-                    1 <= kingLocation.getColumn() + X_DIRS[i] && kingLocation.getColumn() + X_DIRS[i] <= 8) {
-                ChessPosition position = new ChessPosition(kingLocation.getRow() + Y_DIRS[i],
-                        kingLocation.getColumn() + X_DIRS[i]);
-                ChessPiece target = board.getPiece(position);
-                if (!targetedSquares.contains(position)) {
-                    target = board.getPiece(position);
-                    if (target == null) {
-                        return false;
-                    }
-                } else {
-                    if (target != null &&
-                            target.getTeamColor() == (teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE)
-                            && possibleSacrifice(position, teamColor)) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return isInCheck(teamColor) && !hasAnyLegalMove(teamColor);
     }
 
     /**
@@ -371,9 +596,18 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        Collection<ChessMove> availableMoves = getAllMoves(teamColor);
-        availableMoves.removeIf(chessMove -> chessMove.getStartPosition().equals(getKingLocation(teamColor)));
-        return availableMoves.isEmpty() && !isInCheck(teamColor) && validMoves(getKingLocation(teamColor)).isEmpty();
+        return !isInCheck(teamColor) && !hasAnyLegalMove(teamColor);
+    }
+
+    /**
+     * Determines if the given team has at least one legal move, stopping at the first one found instead of
+     * generating them all
+     *
+     * @param teamColor which team to look for a move for
+     * @return True if the team can make any move
+     */
+    public boolean hasAnyLegalMove(TeamColor teamColor) {
+        return MoveGenerator.hasLegalMove(board, teamColor);
     }
 
     /**
@@ -383,6 +617,10 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        undoCount = 0;
+        status = null;
+        halfmoveClock = 0;
+        publishSnapshot();
     }
 
     /**
@@ -0,0 +1,249 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A compact, versioned binary form of a {@link ChessGame}, for storage and transport.
+ * <p>
+ * Version 2 is laid out as follows, with multi-byte numbers big-endian:
+ * <ul>
+ *     <li>1 byte: the format version</li>
+ *     <li>1 byte: bit 0 set when black is to move, bit 1 set when the game is over, castling rights in bits 4-7</li>
+ *     <li>1 byte: the en passant square plus one, or 0 for none</li>
+ *     <li>1 byte: the halfmove clock</li>
+ *     <li>4 bytes: the number of plies played</li>
+ *     <li>8 bytes: the occupied squares, then 4 bits per occupied square in square order holding
+ *     {@link ChessBoard#pieceCode(ChessPiece)}, padded to a whole byte</li>
+ *     <li>1 byte: {@link #REBUILD_KEYS} when the keys of the earlier positions the repetition check still needs
+ *     can be worked out from the history, and otherwise how many of those keys follow, 8 bytes each, most recent
+ *     first</li>
+ *     <li>4 bytes: the number of moves in the history, then 2 bytes for each in the low bits of the {@link Move}
+ *     encoding</li>
+ * </ul>
+ * A full board therefore takes 32 bytes including the header, and each move adds two.
+ * <p>
+ * Every move since the last capture or pawn move is a plain piece move, so the earlier
+ * positions the repetition check needs are found by taking those moves back one by one
+ * from the current position, and almost every game is stored without any keys. The
+ * encoder only stores keys when that walk back does not reproduce them, for example
+ * when a castling move or a move that gave up castling rights is in the window, or when
+ * the game started from a FEN and the history does not reach back far enough.
+ * <p>
+ * Version 1 always stored the keys and is still read.
+ */
+public final class ChessGameCodec {
+
+    public static final byte VERSION = 2;
+
+    /** Marks position keys left out of the encoding to be rebuilt from the history on decoding. */
+    static final int REBUILD_KEYS = 0xFF;
+
+    private static final int HEADER_BYTES = 8;
+
+    private ChessGameCodec() {}
+
+    /**
+     * @return the number of bytes {@link #encode(ChessGame, ByteBuffer)} will write for the game
+     */
+    public static int encodedSize(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        return HEADER_BYTES + 8 + (Long.bitCount(board.getOccupancy()) + 1) / 2 + 1 + 8 * storedKeys(game) +
+                4 + 2 * board.getHistorySize();
+    }
+
+    public static byte[] encode(ChessGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(game));
+        encode(game, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Writes the game at the buffer's position, for example into a buffer that backs a binary WebSocket frame
+     *
+     * @param game   the game to write
+     * @param buffer where to write it, with at least {@link #encodedSize(ChessGame)} bytes remaining
+     */
+    public static void encode(ChessGame game, ByteBuffer buffer) {
+        ChessBoard board = game.getBoard();
+        buffer.put(VERSION);
+        buffer.put((byte) ((game.getTeamTurn() == ChessGame.TeamColor.BLACK ? 1 : 0) | (game.isIsOver() ? 2 : 0) |
+                board.getCastlingRights() << 4));
+        buffer.put((byte) (board.getEnPassantSquare() + 1));
+        buffer.put((byte) game.getHalfmoveClock());
+        buffer.putInt(game.getPlyCount());
+
+        long occupied = board.getOccupancy();
+        buffer.putLong(occupied);
+        int packed = 0;
+        boolean high = true;
+        for (; occupied != 0; occupied &= occupied - 1) {
+            int code = ChessBoard.pieceCode(board.getPiece(Bitboard.first(occupied)));
+            if (high) {
+                packed = code << 4;
+            } else {
+                buffer.put((byte) (packed | code));
+            }
+            high = !high;
+        }
+        if (!high) {
+            buffer.put((byte) packed);
+        }
+
+        int stored = storedKeys(game);
+        buffer.put((byte) (stored == 0 && game.getRepetitionWindow() > 0 ? REBUILD_KEYS : stored));
+        for (int back = 1; back <= stored; back++) {
+            buffer.putLong(game.getPositionKey(back));
+        }
+
+        int moves = board.getHistorySize();
+        buffer.putInt(moves);
+        for (int i = 0; i < moves; i++) {
+            buffer.putShort((short) board.getHistoryMove(i));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a game in a version this codec can read
+     */
+    public static ChessGame decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Reads a game from the buffer's position, leaving the position just past it
+     *
+     * @throws IllegalArgumentException if the bytes are not a game in a version this codec can read
+     */
+    public static ChessGame decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != 1 && version != VERSION) {
+                throw new IllegalArgumentException("Unsupported chess game encoding version " + version);
+            }
+            int flags = buffer.get() & 0xFF;
+            int enPassant = (buffer.get() & 0xFF) - 1;
+            int halfmoveClock = buffer.get() & 0xFF;
+            int plyCount = buffer.getInt();
+
+            ChessBoard board = new ChessBoard();
+            long occupied = buffer.getLong();
+            int packed = 0;
+            boolean high = true;
+            for (; occupied != 0; occupied &= occupied - 1) {
+                int code;
+                if (high) {
+                    packed = buffer.get() & 0xFF;
+                    code = packed >>> 4;
+                } else {
+                    code = packed & 15;
+                }
+                high = !high;
+                if (code == 0 || code > 12) {
+                    throw new IllegalArgumentException("Invalid piece code " + code);
+                }
+                board.addPiece(Bitboard.first(occupied), ChessBoard.pieceFromCode(code));
+            }
+            board.setCastlingRights(flags >>> 4);
+            board.setEnPassantSquare(enPassant);
+
+            ChessGame game = new ChessGame(board, (flags & 1) != 0 ? ChessGame.TeamColor.BLACK :
+                    ChessGame.TeamColor.WHITE, halfmoveClock, plyCount);
+            game.setIsOver((flags & 2) != 0);
+            int window = buffer.get() & 0xFF;
+            boolean rebuild = version >= 2 && window == REBUILD_KEYS;
+            for (int back = 1; !rebuild && back <= window; back++) {
+                game.setPositionKey(back, buffer.getLong());
+            }
+
+            int moves = buffer.getInt();
+            if (moves < 0 || moves > buffer.remaining() / 2) {
+                throw new IllegalArgumentException("Invalid history length " + moves);
+            }
+            for (int i = 0; i < moves; i++) {
+                board.logMove(buffer.getShort() & 0x7FFF);
+            }
+            if (rebuild) {
+                long[] keys = rebuildPositionKeys(board, game.getTeamTurn(), Math.min(Math.min(halfmoveClock,
+                        plyCount), ChessGame.REPETITION_WINDOW));
+                if (keys == null) {
+                    throw new IllegalArgumentException("History does not cover the repetition window");
+                }
+                for (int back = 1; back <= keys.length; back++) {
+                    game.setPositionKey(back, keys[back - 1]);
+                }
+            }
+            game.publishSnapshot();
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated chess game encoding", e);
+        }
+    }
+
+    /**
+     * @return how many position keys the encoding has to store, which is 0 when they can be rebuilt from the history
+     */
+    private static int storedKeys(ChessGame game) {
+        int window = game.getRepetitionWindow();
+        long[] rebuilt = rebuildPositionKeys(game.getBoard(), game.getTeamTurn(), window);
+        if (rebuilt == null) {
+            return window;
+        }
+        for (int back = 1; back <= window; back++) {
+            if (rebuilt[back - 1] != game.getPositionKey(back)) {
+                return window;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Works out the keys of earlier positions by taking the last moves of the history back on a copy of the board.
+     * Only plain piece moves can be taken back this way, and castling rights are assumed not to have changed, so
+     * the encoder checks the result against the game's own keys before relying on it.
+     *
+     * @param board  the current position and its history
+     * @param turn   the team to move in the current position
+     * @param window how many plies back to go
+     * @return the keys of the positions 1 to window plies back, or null if the history cannot be taken back that far
+     */
+    private static long[] rebuildPositionKeys(ChessBoard board, ChessGame.TeamColor turn, int window) {
+        int moves = board.getHistorySize();
+        if (window > moves) {
+            return null;
+        }
+        ChessBoard earlier = new ChessBoard(board);
+        earlier.setCastlingRights(board.getCastlingRights());
+        long[] keys = new long[window];
+        for (int back = 1; back <= window; back++) {
+            int move = board.getHistoryMove(moves - back);
+            int from = Move.from(move);
+            int to = Move.to(move);
+            ChessPiece piece = earlier.getPiece(to);
+            if (piece == null || Move.isPromotion(move) || piece.getPieceType() == ChessPiece.PieceType.PAWN ||
+                    piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs((from & 7) - (to & 7)) == 2) {
+                return null;
+            }
+            earlier.clearPiece(to);
+            earlier.addPiece(from, piece);
+            int previous = moves - back - 1;
+            earlier.setEnPassantSquare(previous < 0 ? -1 : doublePushTarget(earlier, board.getHistoryMove(previous)));
+            turn = turn == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            keys[back - 1] = earlier.zobristKey() ^ (turn == ChessGame.TeamColor.BLACK ? Zobrist.BLACK_TO_MOVE : 0);
+        }
+        return keys;
+    }
+
+    /**
+     * @return the square a pawn can be captured on en passant after the given move, or -1
+     */
+    private static int doublePushTarget(ChessBoard board, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(to);
+        if (piece == null || piece.getPieceType() != ChessPiece.PieceType.PAWN || Math.abs(to - from) != 16) {
+            return -1;
+        }
+        return (from + to) / 2;
+    }
+}
@@ -0,0 +1,352 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Builds the Gson instances the client and server use for chess objects.
+ * <p>
+ * Positions and pieces are written in the same shape reflection would produce, but are
+ * read back through {@link ChessPosition#of(int, int)} and
+ * {@link ChessPiece#of(ChessGame.TeamColor, ChessPiece.PieceType)} so deserialized games
+ * share the cached instances instead of allocating their own.
+ * <p>
+ * Games, boards and moves are written in a compact form: a game is its FEN plus its
+ * history as a string of moves in coordinate notation (e2e4 e7e5 ...), and a move on
+ * its own is a single such string. Reading also accepts the shapes reflection
+ * produced for earlier versions of these classes, including the original 8x8 array
+ * board, so games already stored in the database keep loading.
+ */
+public final class ChessGson {
+
+    private ChessGson() {}
+
+    /**
+     * @return a builder with the chess type adapters registered, for callers that need to add their own settings
+     */
+    public static GsonBuilder builder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(ChessPosition.class, new PositionAdapter().nullSafe())
+                .registerTypeAdapter(ChessPiece.class, new PieceAdapter().nullSafe())
+                .registerTypeAdapterFactory(new ModelAdapterFactory());
+    }
+
+    /**
+     * @return a Gson instance with the chess type adapters registered
+     */
+    public static Gson create() {
+        return builder().create();
+    }
+
+    private static class PositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.beginObject();
+            out.name("row").value(position.getRow());
+            out.name("column").value(position.getColumn());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            int row = 0;
+            int column = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "column" -> column = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return ChessPosition.of(row, column);
+        }
+    }
+
+    private static class PieceAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("color").value(piece.getTeamColor() == null ? null : piece.getTeamColor().name());
+            out.name("type").value(piece.getPieceType() == null ? null : piece.getPieceType().name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "color" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                return new ChessPiece(color, type);
+            }
+            return ChessPiece.of(color, type);
+        }
+    }
+
+    /**
+     * Creates the move, board and game adapters, handing each the reflective adapter Gson would otherwise have used
+     * so it can still read the older formats.
+     */
+    private static class ModelAdapterFactory implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> raw = type.getRawType();
+            TypeAdapter<?> adapter;
+            if (raw == ChessMove.class) {
+                adapter = new MoveAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessMove.class)));
+            } else if (raw == ChessBoard.class) {
+                adapter = new BoardAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessBoard.class)),
+                        gson.getAdapter(ChessPiece.class), gson.getAdapter(ChessMove.class));
+            } else if (raw == ChessGame.class) {
+                adapter = new GameAdapter(gson.getDelegateAdapter(this, TypeToken.get(ChessGame.class)));
+            } else {
+                return null;
+            }
+            return (TypeAdapter<T>) adapter.nullSafe();
+        }
+    }
+
+    private static class MoveAdapter extends TypeAdapter<ChessMove> {
+        private final TypeAdapter<ChessMove> reflective;
+
+        MoveAdapter(TypeAdapter<ChessMove> reflective) {
+            this.reflective = reflective;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.value(Move.toString(Move.base(move)));
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.STRING) {
+                return reflective.read(in);
+            }
+            return Move.toChessMove(parseMove(in.nextString()));
+        }
+    }
+
+    private static class BoardAdapter extends TypeAdapter<ChessBoard> {
+        private final TypeAdapter<ChessBoard> reflective;
+        private final TypeAdapter<ChessPiece> pieceAdapter;
+        private final TypeAdapter<ChessMove> moveAdapter;
+
+        BoardAdapter(TypeAdapter<ChessBoard> reflective, TypeAdapter<ChessPiece> pieceAdapter,
+                     TypeAdapter<ChessMove> moveAdapter) {
+            this.reflective = reflective;
+            this.pieceAdapter = pieceAdapter;
+            this.moveAdapter = moveAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            StringBuilder pieces = new StringBuilder(72);
+            Fen.writePlacement(board, pieces);
+            out.beginObject();
+            out.name("pieces").value(pieces.toString());
+            out.name("castlingRights").value(board.getCastlingRights());
+            out.name("enPassantSquare").value(board.getEnPassantSquare());
+            out.name("history").value(writeHistory(board));
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            in.beginObject();
+            String first = in.hasNext() ? in.nextName() : null;
+            if (!"pieces".equals(first)) {
+                return readLegacy(readRemaining(first, in));
+            }
+            ChessBoard board = new ChessBoard();
+            Fen.readPlacement(in.nextString(), board);
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "castlingRights" -> board.setCastlingRights(in.nextInt());
+                    case "enPassantSquare" -> board.setEnPassantSquare(in.nextInt());
+                    case "history" -> readHistory(in.nextString(), board);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return board;
+        }
+
+        private ChessBoard readLegacy(JsonObject json) {
+            // Earlier versions stored the history as move objects, and reflection writes it as the packed moves
+            JsonElement history = json.remove("history");
+            JsonElement historySize = json.remove("historySize");
+            ChessBoard board = json.has("board") ? readArrayBoard(json) : reflective.fromJsonTree(json);
+            if (history != null && history.isJsonArray()) {
+                JsonArray moves = history.getAsJsonArray();
+                int size = historySize == null ? moves.size() : Math.min(historySize.getAsInt(), moves.size());
+                for (int i = 0; i < size; i++) {
+                    JsonElement move = moves.get(i);
+                    if (move.isJsonPrimitive()) {
+                        board.logMove(move.getAsInt() & 0x7FFF);
+                    } else {
+                        board.logMove(moveAdapter.fromJsonTree(move));
+                    }
+                }
+            }
+            return board;
+        }
+
+        /**
+         * Reads the original format, where the board was an 8x8 array of pieces indexed by row and then column
+         */
+        private ChessBoard readArrayBoard(JsonObject json) {
+            ChessBoard board = new ChessBoard();
+            JsonArray rows = json.getAsJsonArray("board");
+            for (int row = 0; row < rows.size(); row++) {
+                JsonArray columns = rows.get(row).getAsJsonArray();
+                for (int column = 0; column < columns.size(); column++) {
+                    ChessPiece piece = pieceAdapter.fromJsonTree(columns.get(column));
+                    if (piece != null) {
+                        board.addPiece(Bitboard.square(row + 1, column + 1), piece);
+                    }
+                }
+            }
+            return board;
+        }
+    }
+
+    private static class GameAdapter extends TypeAdapter<ChessGame> {
+        private final TypeAdapter<ChessGame> reflective;
+
+        GameAdapter(TypeAdapter<ChessGame> reflective) {
+            this.reflective = reflective;
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            out.beginObject();
+            out.name("fen").value(game.toFen());
+            out.name("history").value(writeHistory(game.getBoard()));
+            out.name("isOver").value(game.isIsOver());
+            int window = game.getRepetitionWindow();
+            if (window > 0) {
+                out.name("positionKeys").beginArray();
+                for (int back = 1; back <= window; back++) {
+                    out.value(game.getPositionKey(back));
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            in.beginObject();
+            String first = in.hasNext() ? in.nextName() : null;
+            if (!"fen".equals(first)) {
+                ChessGame game = reflective.fromJsonTree(readRemaining(first, in));
+                game.publishSnapshot();
+                return game;
+            }
+            ChessGame game;
+            try {
+                game = ChessGame.fromFen(in.nextString());
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "history" -> readHistory(in.nextString(), game.getBoard());
+                    case "isOver" -> game.setIsOver(in.nextBoolean());
+                    case "positionKeys" -> {
+                        in.beginArray();
+                        for (int back = 1; in.hasNext(); back++) {
+                            game.setPositionKey(back, in.nextLong());
+                        }
+                        in.endArray();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            game.publishSnapshot();
+            return game;
+        }
+    }
+
+    /**
+     * Parses the rest of an object into a tree for the older formats, which are read through reflection or need
+     * to look at several fields before deciding how to read them. The object's opening brace and first name have
+     * already been consumed.
+     *
+     * @param first the first name in the object, or null if it is empty
+     */
+    private static JsonObject readRemaining(String first, JsonReader in) throws IOException {
+        JsonObject json = new JsonObject();
+        if (first != null) {
+            json.add(first, JsonParser.parseReader(in));
+            while (in.hasNext()) {
+                json.add(in.nextName(), JsonParser.parseReader(in));
+            }
+        }
+        in.endObject();
+        return json;
+    }
+
+    private static String writeHistory(ChessBoard board) {
+        int moves = board.getHistorySize();
+        StringBuilder output = new StringBuilder(moves * 5);
+        for (int i = 0; i < moves; i++) {
+            if (i > 0) {
+                output.append(' ');
+            }
+            output.append(Move.toString(board.getHistoryMove(i)));
+        }
+        return output.toString();
+    }
+
+    private static void readHistory(String history, ChessBoard board) {
+        int start = 0;
+        while (start < history.length()) {
+            int end = history.indexOf(' ', start);
+            if (end < 0) {
+                end = history.length();
+            }
+            board.logMove(parseMove(history.substring(start, end)));
+            start = end + 1;
+        }
+    }
+
+    private static int parseMove(String text) {
+        try {
+            return Move.parse(text);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+}
@@ -10,8 +10,19 @@ import java.util.*;
  */
 public class ChessPiece {
 
-    private ChessGame.TeamColor color;
-    private PieceType type;
+    private static final ChessPiece[][] PIECES = new ChessPiece[2][];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            PIECES[color.ordinal()] = new ChessPiece[PieceType.values().length];
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final ChessGame.TeamColor color;
+    private final PieceType type;
     private static final int[] X_DIRS = {-1, 1, 0, 0, -1, -1, 1, 1};
     private static final int[] Y_DIRS = {0, 0, -1, 1, -1, 1, -1, 1};
     private static final int[][] KNIGHT_MOVES = {{2, -1}, {2, 1}, {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}};
@@ -22,6 +33,15 @@ public class ChessPiece {
         type = pieceType;
     }
 
+    /**
+     * Pieces never change once created, so one instance of each team and type is shared by every board.
+     *
+     * @return the shared piece of the given team and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType pieceType) {
+        return PIECES[pieceColor.ordinal()][pieceType.ordinal()];
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -33,7 +53,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(color, type);
+        return 31 * Objects.hashCode(color) + Objects.hashCode(type);
     }
 
     @Override
@@ -82,10 +102,10 @@ public class ChessPiece {
         for(int i = 0; i < X_DIRS.length; i++) {
             if (1 <= myPosition.getRow() + Y_DIRS[i] && myPosition.getRow() + Y_DIRS[i] <= 8 &&
                     1 <= myPosition.getColumn() + X_DIRS[i] && myPosition.getColumn() + X_DIRS[i] <= 8) {
-                ChessPiece target = board.getPiece(new ChessPosition(myPosition.getRow() + Y_DIRS[i],
+                ChessPiece target = board.getPiece(ChessPosition.of(myPosition.getRow() + Y_DIRS[i],
                         myPosition.getColumn() + X_DIRS[i]));
                 if (target == null || target.getTeamColor() != color) {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + Y_DIRS[i],
+                    moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + Y_DIRS[i],
                             myPosition.getColumn() + X_DIRS[i]), null));
                 }
             }
@@ -98,38 +118,32 @@ public class ChessPiece {
      *
      * @param board Current board state moves are evaluated on
      * @param myPosition Current position moves are evaluated from
-     * @param directions Which directions as declared at the class level the function should evaluate
+     * @param attacks Squares the piece attacks, as looked up from the sliding attack tables
      * @return Collection of valid moves
      */
-    private Collection<ChessMove> calcDirections(ChessBoard board, ChessPosition myPosition, int[] directions) {
+    private Collection<ChessMove> calcSlidingMoves(ChessBoard board, ChessPosition myPosition, long attacks) {
         List<ChessMove> moves = new ArrayList<>();
-        for(int i : directions) {
-            int distanceFactor = 1;
-            while (1 <= myPosition.getRow() + (Y_DIRS[i]*distanceFactor) &&
-                    myPosition.getRow() + (Y_DIRS[i]*distanceFactor) <= 8 &&
-                    1 <= myPosition.getColumn() + (X_DIRS[i]*distanceFactor) &&
-                    myPosition.getColumn() + (X_DIRS[i]*distanceFactor) <= 8){
-                ChessPiece target = board.getPiece(new ChessPosition(myPosition.getRow() +
-                        (Y_DIRS[i]*distanceFactor), myPosition.getColumn() +
-                        (X_DIRS[i]*distanceFactor)));
-                if (target == null) {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() +
-                            (Y_DIRS[i]*distanceFactor), myPosition.getColumn() +
-                            (X_DIRS[i]*distanceFactor)), null));
-                } else if (target.getTeamColor() == color){
-                    break;
-                } else {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() +
-                            (Y_DIRS[i]*distanceFactor), myPosition.getColumn() +
-                            (X_DIRS[i]*distanceFactor)), null));
-                    break;
-                }
-                distanceFactor++;
-            }
+        for (long targets = attacks & ~board.getOccupancy(color); targets != 0; targets &= targets - 1) {
+            int square = Bitboard.first(targets);
+            moves.add(new ChessMove(myPosition, Bitboard.position(square), null));
         }
         return moves;
     }
 
+    /**
+     * @return the squares a sliding piece of this type attacks from the given position, or an empty set for
+     * pieces that do not slide
+     */
+    private long slidingAttacks(ChessBoard board, ChessPosition myPosition) {
+        int square = Bitboard.square(myPosition);
+        return switch (type) {
+            case QUEEN -> Bitboard.queenAttacks(square, board.getOccupancy());
+            case BISHOP -> Bitboard.bishopAttacks(square, board.getOccupancy());
+            case ROOK -> Bitboard.rookAttacks(square, board.getOccupancy());
+            default -> Bitboard.EMPTY;
+        };
+    }
+
     /**
      * This function calculates valid moves for the Knight piece by iterating through relative a relative coordinate
      * set declared on the class level.
@@ -143,10 +157,10 @@ public class ChessPiece {
         for (int[] knightMove : KNIGHT_MOVES) {
             if (1 <= myPosition.getRow() + knightMove[0] && myPosition.getRow() + knightMove[0] <= 8 &&
                     1 <= myPosition.getColumn() + knightMove[1] && myPosition.getColumn() + knightMove[1] <= 8) {
-                ChessPiece target = board.getPiece(new ChessPosition(myPosition.getRow() + knightMove[0],
+                ChessPiece target = board.getPiece(ChessPosition.of(myPosition.getRow() + knightMove[0],
                         myPosition.getColumn() + knightMove[1]));
                 if (target == null || target.getTeamColor() != color) {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + knightMove[0],
+                    moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + knightMove[0],
                             myPosition.getColumn() + knightMove[1]), null));
                 }
             }
@@ -165,26 +179,26 @@ public class ChessPiece {
     private Collection<ChessMove> calcPawnDefaultMovement(ChessBoard board, ChessPosition myPosition) {
         List<ChessMove> moves = new ArrayList<>();
         int forward = color == ChessGame.TeamColor.WHITE ? 1 : -1;
-        ChessPiece target = board.getPiece(new ChessPosition(myPosition.getRow() + forward,
+        ChessPiece target = board.getPiece(ChessPosition.of(myPosition.getRow() + forward,
                 myPosition.getColumn()));
         if (target == null) {
             if ((color == ChessGame.TeamColor.WHITE && myPosition.getRow() == 7) ||
                     (color == ChessGame.TeamColor.BLACK && myPosition.getRow() == 2)) {
                 for (PieceType pt : PieceType.values()) {
                     if (pt == PieceType.PAWN || pt == PieceType.KING) {continue;}
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + forward,
+                    moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + forward,
                             myPosition.getColumn()), pt));
                 }
             } else {
-                moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + forward,
+                moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + forward,
                         myPosition.getColumn()), null));
             }
             if ((color == ChessGame.TeamColor.WHITE && myPosition.getRow() == 2) ||
                     (color == ChessGame.TeamColor.BLACK && myPosition.getRow() == 7)) {
-                target = board.getPiece(new ChessPosition(myPosition.getRow() + forward*2,
+                target = board.getPiece(ChessPosition.of(myPosition.getRow() + forward*2,
                         myPosition.getColumn()));
                 if (target == null) {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + forward*2,
+                    moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + forward*2,
                             myPosition.getColumn()), null));
                 }
             }
@@ -204,7 +218,7 @@ public class ChessPiece {
         ChessPiece target;
         int forward = color == ChessGame.TeamColor.WHITE ? 1 : -1;
         if (myPosition.getColumn() > 1) {
-            target = board.getPiece(new ChessPosition(myPosition.getRow() + forward,
+            target = board.getPiece(ChessPosition.of(myPosition.getRow() + forward,
                     myPosition.getColumn() - 1));
             if (target != null && target.getTeamColor() != color) {
                 if ((color == ChessGame.TeamColor.WHITE && myPosition.getRow() == 7) ||
@@ -213,17 +227,17 @@ public class ChessPiece {
                     ptt = Arrays.stream(ptt).filter(piece -> piece != PieceType.PAWN &&
                             piece != PieceType.KING).toArray(PieceType[]::new);
                     for (PieceType pt : ptt) {
-                        moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + forward,
+                        moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + forward,
                                 myPosition.getColumn() - 1), pt));
                     }
                 } else {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + forward,
+                    moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + forward,
                             myPosition.getColumn() - 1), null));
                 }
             }
         }
         if (myPosition.getColumn() < 8) {
-            target = board.getPiece(new ChessPosition(myPosition.getRow() + forward,
+            target = board.getPiece(ChessPosition.of(myPosition.getRow() + forward,
                     myPosition.getColumn() + 1));
             if (target != null && target.getTeamColor() != color) {
                 if ((color == ChessGame.TeamColor.WHITE && myPosition.getRow() == 7) ||
@@ -232,11 +246,11 @@ public class ChessPiece {
                     ptt = Arrays.stream(ptt).filter(piece -> piece != PieceType.PAWN &&
                             piece != PieceType.KING).toArray(PieceType[]::new);
                     for (PieceType pt : ptt) {
-                        moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + forward,
+                        moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + forward,
                                 myPosition.getColumn() + 1), pt));
                     }
                 } else {
-                    moves.add(new ChessMove(myPosition, new ChessPosition(myPosition.getRow() + forward,
+                    moves.add(new ChessMove(myPosition, ChessPosition.of(myPosition.getRow() + forward,
                             myPosition.getColumn() + 1), null));
                 }
             }
@@ -244,99 +258,41 @@ public class ChessPiece {
         return moves;
     }
 
-    private boolean positionHasMoved(ChessBoard board, ChessPosition position) {
-        for (ChessMove move : board.getHistory()) {
-            if (move.getStartPosition().equals(position)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
+    /**
+     * Castling moves for a king on its home square, judged from the board's castling rights and the squares between
+     * king and rook. Whether the king passes through check is left to the game.
+     */
     private Collection<ChessMove> getCastlingMoves(ChessBoard board, ChessPosition startPosition) {
         Collection<ChessMove> moves = new ArrayList<>();
-        ChessPosition whiteKing = new ChessPosition(1, 5);
-        ChessPosition blackKing = new ChessPosition(8, 5);
-        if (startPosition.equals(whiteKing) && !positionHasMoved(board, whiteKing)) {
-            if (!positionHasMoved(board, new ChessPosition(1, 1))) {
-                boolean validCastle = true;
-                for (int i = 2; i <= 4; i++) {
-                    if (board.getPiece(new ChessPosition(1, i)) != null) {
-                        validCastle = false;
-                    }
-                }
-                if (validCastle) {
-                    moves.add(new ChessMove(whiteKing, new ChessPosition(1, 3), null));
-                }
-            }
-            if (!positionHasMoved(board, new ChessPosition(1, 8))) {
-                boolean validCastle = true;
-                for (int i = 6; i <= 7; i++) {
-                    if (board.getPiece(new ChessPosition(1, i)) != null) {
-                        validCastle = false;
-                    }
-                }
-                if (validCastle) {
-                    moves.add(new ChessMove(whiteKing, new ChessPosition(1, 7), null));
-                }
-            }
-        } else if (startPosition.equals(blackKing) && !positionHasMoved(board, blackKing)) {
-            if (!positionHasMoved(board, new ChessPosition(8, 1))) {
-                boolean validCastle = true;
-                for (int i = 2; i <= 4; i++) {
-                    if (board.getPiece(new ChessPosition(8, i)) != null) {
-                        validCastle = false;
-                    }
-                }
-                if (validCastle) {
-                    moves.add(new ChessMove(blackKing, new ChessPosition(8, 3), null));
-                }
-            }
-            if (!positionHasMoved(board, new ChessPosition(8, 8))) {
-                boolean validCastle = true;
-                for (int i = 6; i <= 7; i++) {
-                    if (board.getPiece(new ChessPosition(8, i)) != null) {
-                        validCastle = false;
-                    }
-                }
-                if (validCastle) {
-                    moves.add(new ChessMove(blackKing, new ChessPosition(8, 7), null));
-                }
-            }
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int king = Bitboard.square(startPosition);
+        if (king != (white ? Bitboard.square(1, 5) : Bitboard.square(8, 5))) {
+            return moves;
+        }
+        int rights = board.getCastlingRights();
+        long rooks = board.getBitboard(color, PieceType.ROOK);
+        if ((rights & (white ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE)) != 0 &&
+                Bitboard.contains(rooks, king - 4) && (Bitboard.between(king, king - 4) & board.getOccupancy()) == 0) {
+            moves.add(new ChessMove(startPosition, Bitboard.position(king - 2), null));
+        }
+        if ((rights & (white ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE)) != 0 &&
+                Bitboard.contains(rooks, king + 3) && (Bitboard.between(king, king + 3) & board.getOccupancy()) == 0) {
+            moves.add(new ChessMove(startPosition, Bitboard.position(king + 2), null));
         }
         return moves;
     }
 
     private ChessMove calcEnPassant(ChessBoard board, ChessPosition myPosition) {
-        ChessPiece piece = board.getPiece(myPosition);
-        ChessMove lastMove = board.getLastMove();
-        if (lastMove == null || board.getPiece(lastMove.getEndPosition()).getPieceType() != PieceType.PAWN) {
+        int enPassant = board.getEnPassantSquare();
+        int from = Bitboard.square(myPosition);
+        if (enPassant < 0 || !Bitboard.contains(Bitboard.pawnAttacks(color, from), enPassant)) {
             return null;
         }
-        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE && myPosition.getRow() == 5) {
-            ChessMove leftMove = new ChessMove(new ChessPosition(7, myPosition.getColumn()-1),
-                    new ChessPosition(5, myPosition.getColumn()-1), null);
-            ChessMove rightMove = new ChessMove(new ChessPosition(7, myPosition.getColumn()+1),
-                    new ChessPosition(5, myPosition.getColumn()+1), null);
-            if (lastMove.equals(leftMove)) {
-                return new ChessMove(myPosition, new ChessPosition(6, myPosition.getColumn()-1), null);
-            }
-            if (lastMove.equals(rightMove)) {
-                return new ChessMove(myPosition, new ChessPosition(6, myPosition.getColumn()+1), null);
-            }
-        } else if (piece.getTeamColor() == ChessGame.TeamColor.BLACK && myPosition.getRow() == 4) {
-            ChessMove leftMove = new ChessMove(new ChessPosition(2, myPosition.getColumn()-1),
-                    new ChessPosition(4, myPosition.getColumn()-1), null);
-            ChessMove rightMove = new ChessMove(new ChessPosition(2, myPosition.getColumn()+1),
-                    new ChessPosition(4, myPosition.getColumn()+1), null);
-            if (lastMove.equals(leftMove)) {
-                return new ChessMove(myPosition, new ChessPosition(3, myPosition.getColumn()-1), null);
-            }
-            if (lastMove.equals(rightMove)) {
-                return new ChessMove(myPosition, new ChessPosition(3, myPosition.getColumn()+1), null);
-            }
+        ChessPiece captured = board.getPiece((from & ~7) | (enPassant & 7));
+        if (captured == null || captured.getPieceType() != PieceType.PAWN || captured.getTeamColor() == color) {
+            return null;
         }
-        return null;
+        return new ChessMove(myPosition, Bitboard.position(enPassant), null);
     }
 
     /**
@@ -353,14 +309,8 @@ public class ChessPiece {
                 moves.addAll(calcDirections(board, myPosition));
                 moves.addAll(getCastlingMoves(board, myPosition));
             }
-            case QUEEN -> {
-                moves.addAll(calcDirections(board, myPosition, new int[]{0, 1, 2, 3, 4, 5, 6, 7}));
-            }
-            case BISHOP -> {
-                moves.addAll(calcDirections(board, myPosition, new int[]{4, 5, 6, 7}));
-            }
-            case ROOK -> {
-                moves.addAll(calcDirections(board, myPosition, new int[]{0, 1, 2, 3}));
+            case QUEEN, BISHOP, ROOK -> {
+                moves.addAll(calcSlidingMoves(board, myPosition, slidingAttacks(board, myPosition)));
             }
             case KNIGHT -> {
                 moves.addAll(calcKnight(board, myPosition));
@@ -377,25 +327,11 @@ public class ChessPiece {
         return moves;
     }
 
-    private Collection<ChessPosition> calcTargets(ChessBoard board, ChessPosition myPosition, int[] directions) {
+    private Collection<ChessPosition> calcTargets(long attacks) {
         Set<ChessPosition> targets = new HashSet<>();
-        for(int i : directions) {
-            int distanceFactor = 1;
-            while (1 <= myPosition.getRow() + (Y_DIRS[i]*distanceFactor) &&
-                    myPosition.getRow() + (Y_DIRS[i]*distanceFactor) <= 8 &&
-                    1 <= myPosition.getColumn() + (X_DIRS[i]*distanceFactor) &&
-                    myPosition.getColumn() + (X_DIRS[i]*distanceFactor) <= 8){
-                ChessPosition position = new ChessPosition(myPosition.getRow() +
-                        (Y_DIRS[i]*distanceFactor), myPosition.getColumn() + (X_DIRS[i]*distanceFactor));
-                ChessPiece target = board.getPiece(position);
-                targets.add(new ChessPosition(myPosition.getRow() +
-                            (Y_DIRS[i]*distanceFactor), myPosition.getColumn() +
-                            (X_DIRS[i]*distanceFactor)));
-                if (target != null) {
-                    break;
-                }
-                distanceFactor++;
-            }
+        for (; attacks != 0; attacks &= attacks - 1) {
+            int square = Bitboard.first(attacks);
+            targets.add(Bitboard.position(square));
         }
         return targets;
     }
@@ -407,34 +343,28 @@ public class ChessPiece {
                 for(int i = 0; i < X_DIRS.length; i++) {
                     if (1 <= myPosition.getRow() + Y_DIRS[i] && myPosition.getRow() + Y_DIRS[i] <= 8 &&
                             1 <= myPosition.getColumn() + X_DIRS[i] && myPosition.getColumn() + X_DIRS[i] <= 8) {
-                        targets.add(new ChessPosition(myPosition.getRow() + Y_DIRS[i],
+                        targets.add(ChessPosition.of(myPosition.getRow() + Y_DIRS[i],
                                     myPosition.getColumn() + X_DIRS[i]));
                     }
                 }
             }
-            case QUEEN -> {
-                targets.addAll(calcTargets(board, myPosition, new int[]{0, 1, 2, 3, 4, 5, 6, 7}));
-            }
-            case BISHOP -> {
-                targets.addAll(calcTargets(board, myPosition, new int[]{4, 5, 6, 7}));
-            }
-            case ROOK -> {
-                targets.addAll(calcTargets(board, myPosition, new int[]{0, 1, 2, 3}));
+            case QUEEN, BISHOP, ROOK -> {
+                targets.addAll(calcTargets(slidingAttacks(board, myPosition)));
             }
             case KNIGHT -> {
                 for (int[] knightMove : KNIGHT_MOVES) {
                     if (1 <= myPosition.getRow() + knightMove[0] && myPosition.getRow() + knightMove[0] <= 8 &&
                             1 <= myPosition.getColumn() + knightMove[1] && myPosition.getColumn() + knightMove[1] <= 8) {
-                        targets.add(new ChessPosition(myPosition.getRow() + knightMove[0],
+                        targets.add(ChessPosition.of(myPosition.getRow() + knightMove[0],
                                     myPosition.getColumn() + knightMove[1]));
                     }
                 }
             }
             case PAWN -> {
                 int forward = color == ChessGame.TeamColor.WHITE ? 1 : -1;
-                targets.add(new ChessPosition(myPosition.getRow() + forward, myPosition.getColumn()-1));
-                targets.add(new ChessPosition(myPosition.getRow() + forward, myPosition.getColumn()));
-                targets.add(new ChessPosition(myPosition.getRow() + forward, myPosition.getColumn()+1));
+                targets.add(ChessPosition.of(myPosition.getRow() + forward, myPosition.getColumn()-1));
+                targets.add(ChessPosition.of(myPosition.getRow() + forward, myPosition.getColumn()));
+                targets.add(ChessPosition.of(myPosition.getRow() + forward, myPosition.getColumn()+1));
             }
         }
         return targets;
@@ -0,0 +1,212 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation.
+ * <p>
+ * The reader walks the string one character at a time and places pieces straight onto
+ * a new board, so loading a position allocates little beyond the board and game
+ * themselves.
+ */
+final class Fen {
+
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {}
+
+    /**
+     * @throws IllegalArgumentException if the string is not a valid FEN record
+     */
+    static ChessGame read(String fen) {
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = readPlacement(fen, board);
+        if (++i >= length) {
+            throw invalid(fen);
+        }
+
+        ChessGame.TeamColor turn = switch (fen.charAt(i++)) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw invalid(fen);
+        };
+        i = skipSpace(fen, i);
+
+        int castlingRights = 0;
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                castlingRights |= switch (fen.charAt(i)) {
+                    case 'K' -> ChessBoard.WHITE_KINGSIDE;
+                    case 'Q' -> ChessBoard.WHITE_QUEENSIDE;
+                    case 'k' -> ChessBoard.BLACK_KINGSIDE;
+                    case 'q' -> ChessBoard.BLACK_QUEENSIDE;
+                    default -> throw invalid(fen);
+                };
+            }
+        }
+        board.setCastlingRights(castlingRights);
+        i = skipSpace(fen, i);
+
+        int enPassant = -1;
+        if (fen.charAt(i) == '-') {
+            i++;
+        } else {
+            if (i + 1 >= length) {
+                throw invalid(fen);
+            }
+            int file = fen.charAt(i) - 'a';
+            int rank = fen.charAt(i + 1) - '1';
+            // The pawn that just moved two squares belongs to the other team, so the square is behind it
+            if (file < 0 || file > 7 || rank != (turn == ChessGame.TeamColor.WHITE ? 5 : 2)) {
+                throw invalid(fen);
+            }
+            enPassant = rank * 8 + file;
+            i += 2;
+        }
+        board.setEnPassantSquare(enPassant);
+
+        // The move clocks are optional, as many tools leave them off
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if (i < length) {
+            i = skipSpace(fen, i);
+            int end = fen.indexOf(' ', i);
+            halfmoveClock = parseNumber(fen, i, end < 0 ? length : end);
+            if (end >= 0) {
+                fullmoveNumber = Math.max(1, parseNumber(fen, end + 1, length));
+                if (fullmoveNumber > Integer.MAX_VALUE / 2) {
+                    throw invalid(fen);
+                }
+            }
+        }
+        return new ChessGame(board, turn, halfmoveClock,
+                (fullmoveNumber - 1) * 2 + (turn == ChessGame.TeamColor.BLACK ? 1 : 0));
+    }
+
+    static String write(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder output = new StringBuilder(90);
+        writePlacement(board, output);
+        output.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            output.append('-');
+        } else {
+            if ((rights & ChessBoard.WHITE_KINGSIDE) != 0) {
+                output.append('K');
+            }
+            if ((rights & ChessBoard.WHITE_QUEENSIDE) != 0) {
+                output.append('Q');
+            }
+            if ((rights & ChessBoard.BLACK_KINGSIDE) != 0) {
+                output.append('k');
+            }
+            if ((rights & ChessBoard.BLACK_QUEENSIDE) != 0) {
+                output.append('q');
+            }
+        }
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant < 0) {
+            output.append(" -");
+        } else {
+            output.append(' ').append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >>> 3)));
+        }
+        return output.append(' ').append(game.getHalfmoveClock())
+                .append(' ').append(game.getPlyCount() / 2 + 1).toString();
+    }
+
+    /**
+     * Places the pieces described by the first field of a FEN record on the board
+     *
+     * @return the index just past the piece placement field
+     * @throws IllegalArgumentException if the field does not describe exactly eight rows of eight squares
+     */
+    static int readPlacement(String fen, ChessBoard board) {
+        int length = fen.length();
+        int i = 0;
+        int row = 8;
+        int column = 1;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (column != 9 || row == 1) {
+                    throw invalid(fen);
+                }
+                row--;
+                column = 1;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                ChessPiece piece = ChessBoard.pieceFromChar(c);
+                if (piece == null || column > 8) {
+                    throw invalid(fen);
+                }
+                board.addPiece(Bitboard.square(row, column++), piece);
+            }
+            if (column > 9) {
+                throw invalid(fen);
+            }
+        }
+        if (row != 1 || column != 9) {
+            throw invalid(fen);
+        }
+        return i;
+    }
+
+    /**
+     * Appends the piece placement field of a FEN record for the board
+     */
+    static void writePlacement(ChessBoard board, StringBuilder output) {
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int column = 1; column <= 8; column++) {
+                ChessPiece piece = board.getPiece(Bitboard.square(row, column));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    output.append(empty);
+                    empty = 0;
+                }
+                output.append(ChessBoard.pieceChar(piece));
+            }
+            if (empty > 0) {
+                output.append(empty);
+            }
+            if (row > 1) {
+                output.append('/');
+            }
+        }
+    }
+
+    private static int skipSpace(String fen, int i) {
+        if (i >= fen.length() || fen.charAt(i) != ' ' || i + 1 >= fen.length()) {
+            throw invalid(fen);
+        }
+        return i + 1;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a number or does not fit in an int
+     */
+    private static int parseNumber(String fen, int start, int end) {
+        if (start >= end) {
+            throw invalid(fen);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9' || value > (Integer.MAX_VALUE - (c - '0')) / 10) {
+                throw invalid(fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(String fen) {
+        return new IllegalArgumentException("Invalid FEN: " + fen);
+    }
+}
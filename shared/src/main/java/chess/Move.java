@@ -0,0 +1,145 @@
+package chess;
+
+/**
+ * Static helpers for moves packed into a single int.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square, numbered as in
+ * {@link Bitboard}. Bits 12-14 hold the promotion piece as its {@link ChessPiece.PieceType}
+ * ordinal, with 0 meaning no promotion (a pawn can never promote to a king). The low 15
+ * bits are therefore enough to describe any move. The remaining flag bits are filled in
+ * by the move generator so make/unmake does not need to inspect the board to tell a
+ * castle or en passant capture apart from an ordinary move.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {}
+
+    /**
+     * @param from      the start square
+     * @param to        the end square
+     * @param promotion the piece a pawn promotes to, or null
+     * @param flags     any of the flag constants or'ed together
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | to << 6 | (promotion == null ? 0 : promotion.ordinal() << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return move >>> 6 & 63;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = move >>> 12 & 7;
+        return code == 0 ? null : TYPES[code];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & 0x7000) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * @return the move without its flags, which is all that is needed to identify it within a position
+     */
+    public static int base(int move) {
+        return move & 0x7FFF;
+    }
+
+    /**
+     * @return the packed form of a ChessMove, without flags
+     */
+    public static int base(ChessMove move) {
+        return encode(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.of(from(move)), ChessPosition.of(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, such as e2e4 or e7e8q
+     */
+    public static String toString(int move) {
+        StringBuilder output = new StringBuilder(5);
+        appendSquare(output, from(move));
+        appendSquare(output, to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            output.append(switch (promotion) {
+                case QUEEN -> 'q';
+                case BISHOP -> 'b';
+                case KNIGHT -> 'n';
+                default -> 'r';
+            });
+        }
+        return output.toString();
+    }
+
+    /**
+     * Reads a move in coordinate notation, such as e2e4 or e7e8q. The result has no flags set.
+     *
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation
+     */
+    public static int parse(String text) {
+        if (text.length() != 4 && text.length() != 5) {
+            throw new IllegalArgumentException("Invalid move: " + text);
+        }
+        ChessPiece.PieceType promotion = null;
+        if (text.length() == 5) {
+            promotion = switch (text.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                default -> throw new IllegalArgumentException("Invalid move: " + text);
+            };
+        }
+        return encode(parseSquare(text, 0), parseSquare(text, 2), promotion, 0);
+    }
+
+    private static int parseSquare(String text, int index) {
+        int file = text.charAt(index) - 'a';
+        int rank = text.charAt(index + 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            throw new IllegalArgumentException("Invalid move: " + text);
+        }
+        return rank * 8 + file;
+    }
+
+    private static void appendSquare(StringBuilder output, int square) {
+        output.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+}
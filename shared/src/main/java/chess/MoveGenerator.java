@@ -0,0 +1,285 @@
+package chess;
+
+/**
+ * Generates strictly legal moves straight from the board's bitboards.
+ * <p>
+ * Before any move is emitted the generator works out which pieces of the moving team
+ * are pinned to their king and which squares would answer a check. Pinned pieces may
+ * only move along the line of their pin, every other piece is limited to the check
+ * evasion squares, and king moves are tested against the opposing attacks with the
+ * king lifted off the board. Only en passant, which removes two pieces from a rank at
+ * once, is verified by recomputing attacks on the resulting occupancy.
+ * <p>
+ * Moves are written as packed {@link Move} ints into a {@link MoveList}, with their
+ * capture, double push, en passant and castle flags already set.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
+    private static final ChessPiece.PieceType[] NON_PAWN_PIECES = {ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
+    /** The order {@link #hasLegalMove} tries pieces in after the king, cheapest lookups first. */
+    private static final ChessPiece.PieceType[] CHEAPEST_FIRST = {ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.QUEEN};
+
+    private MoveGenerator() {}
+
+    /**
+     * Adds every legal move for the given team's pieces that stand on a square in fromMask
+     *
+     * @param board    the board to generate moves on
+     * @param us       the team whose moves are generated
+     * @param fromMask the squares whose pieces should be considered, or -1 for all of them
+     * @param moves    the list the generated moves are appended to
+     */
+    static void generate(ChessBoard board, ChessGame.TeamColor us, long fromMask, MoveList moves) {
+        ChessGame.TeamColor them = opponent(us);
+        long own = board.getOccupancy(us);
+        long occupied = board.getOccupancy();
+        int king = board.getKingSquare(us);
+        long checkMask = -1L;
+        long pinned = 0;
+        if (king >= 0) {
+            long checkers = attackers(board, king, them, occupied, board.getOccupancy(them));
+            if (Long.bitCount(checkers) > 1) {
+                checkMask = 0;
+            } else if (checkers != 0) {
+                checkMask = checkers | Bitboard.between(king, Bitboard.first(checkers));
+            }
+            pinned = pinnedPieces(board, king, us);
+            if (Bitboard.contains(fromMask, king)) {
+                addKingMoves(board, us, king, checkers == 0, moves);
+            }
+        }
+        for (ChessPiece.PieceType type : NON_PAWN_PIECES) {
+            for (long pieces = board.getBitboard(us, type) & fromMask; pieces != 0; pieces &= pieces - 1) {
+                int from = Bitboard.first(pieces);
+                long targets = attacks(type, from, occupied) & ~own & checkMask;
+                if (Bitboard.contains(pinned, from)) {
+                    targets &= Bitboard.line(king, from);
+                }
+                addMoves(from, targets, board.getOccupancy(them), moves);
+            }
+        }
+        addPawnMoves(board, us, fromMask, king, checkMask, pinned, moves);
+    }
+
+    /**
+     * Looks for a single legal move for the given team, stopping as soon as one is found. The king is tried first,
+     * since in double check it is the only piece that can move, and then the other pieces from the cheapest to look
+     * up to the most expensive. Castling is never tried: whenever it is legal, so is the king's step towards the rook.
+     *
+     * @param board the board to look for a move on
+     * @param us    the team to look for a move for
+     * @return whether the team has any legal move
+     */
+    static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor us) {
+        ChessGame.TeamColor them = opponent(us);
+        long own = board.getOccupancy(us);
+        long enemy = board.getOccupancy(them);
+        long occupied = board.getOccupancy();
+        int king = board.getKingSquare(us);
+        long checkMask = -1L;
+        long pinned = 0;
+        if (king >= 0) {
+            long withoutKing = occupied & ~Bitboard.bit(king);
+            for (long targets = Bitboard.kingAttacks(king) & ~own; targets != 0; targets &= targets - 1) {
+                if (attackers(board, Bitboard.first(targets), them, withoutKing, enemy) == 0) {
+                    return true;
+                }
+            }
+            long checkers = attackers(board, king, them, occupied, enemy);
+            if (Long.bitCount(checkers) > 1) {
+                return false;
+            } else if (checkers != 0) {
+                checkMask = checkers | Bitboard.between(king, Bitboard.first(checkers));
+            }
+            pinned = pinnedPieces(board, king, us);
+        }
+        int enPassant = board.getEnPassantSquare();
+        for (ChessPiece.PieceType type : CHEAPEST_FIRST) {
+            for (long pieces = board.getBitboard(us, type); pieces != 0; pieces &= pieces - 1) {
+                int from = Bitboard.first(pieces);
+                long targets = type == ChessPiece.PieceType.PAWN ? pawnTargets(us, from, enemy, occupied) :
+                        attacks(type, from, occupied) & ~own;
+                targets &= checkMask;
+                if (Bitboard.contains(pinned, from)) {
+                    targets &= Bitboard.line(king, from);
+                }
+                if (targets != 0) {
+                    return true;
+                }
+                if (type == ChessPiece.PieceType.PAWN && enPassant >= 0 &&
+                        Bitboard.contains(Bitboard.pawnAttacks(us, from), enPassant) &&
+                        Bitboard.contains(board.getBitboard(them, ChessPiece.PieceType.PAWN),
+                                (from & ~7) | (enPassant & 7)) &&
+                        enPassantIsLegal(board, us, king, from, enPassant)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long attacks(ChessPiece.PieceType type, int from, long occupied) {
+        return switch (type) {
+            case QUEEN -> Bitboard.queenAttacks(from, occupied);
+            case BISHOP -> Bitboard.bishopAttacks(from, occupied);
+            case ROOK -> Bitboard.rookAttacks(from, occupied);
+            default -> Bitboard.knightAttacks(from);
+        };
+    }
+
+    /**
+     * @return the squares a pawn can capture on or advance to, not counting en passant
+     */
+    private static long pawnTargets(ChessGame.TeamColor us, int from, long enemy, long occupied) {
+        long targets = Bitboard.pawnAttacks(us, from) & enemy;
+        int forward = us == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int one = from + forward;
+        if (0 <= one && one < 64 && !Bitboard.contains(occupied, one)) {
+            targets |= Bitboard.bit(one);
+            int startRow = us == ChessGame.TeamColor.WHITE ? 2 : 7;
+            if (Bitboard.row(from) == startRow && !Bitboard.contains(occupied, one + forward)) {
+                targets |= Bitboard.bit(one + forward);
+            }
+        }
+        return targets;
+    }
+
+    private static void addKingMoves(ChessBoard board, ChessGame.TeamColor us, int king, boolean notInCheck,
+                                     MoveList moves) {
+        ChessGame.TeamColor them = opponent(us);
+        long enemy = board.getOccupancy(them);
+        long withoutKing = board.getOccupancy() & ~Bitboard.bit(king);
+        for (long targets = Bitboard.kingAttacks(king) & ~board.getOccupancy(us); targets != 0; targets &= targets - 1) {
+            int to = Bitboard.first(targets);
+            if (attackers(board, to, them, withoutKing, enemy) == 0) {
+                moves.add(Move.encode(king, to, null, Bitboard.contains(enemy, to) ? Move.CAPTURE : 0));
+            }
+        }
+        int home = us == ChessGame.TeamColor.WHITE ? Bitboard.square(1, 5) : Bitboard.square(8, 5);
+        if (!notInCheck || king != home) {
+            return;
+        }
+        boolean white = us == ChessGame.TeamColor.WHITE;
+        int rights = board.getCastlingRights();
+        if ((rights & (white ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE)) != 0) {
+            addCastle(board, us, king, king + 3, king + 2, moves);
+        }
+        if ((rights & (white ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE)) != 0) {
+            addCastle(board, us, king, king - 4, king - 2, moves);
+        }
+    }
+
+    private static void addCastle(ChessBoard board, ChessGame.TeamColor us, int king, int rook, int to,
+                                  MoveList moves) {
+        ChessGame.TeamColor them = opponent(us);
+        long occupied = board.getOccupancy();
+        if (!Bitboard.contains(board.getBitboard(us, ChessPiece.PieceType.ROOK), rook) ||
+                (Bitboard.between(king, rook) & occupied) != 0) {
+            return;
+        }
+        int through = (king + to) / 2;
+        long enemy = board.getOccupancy(them);
+        if (attackers(board, through, them, occupied, enemy) == 0 && attackers(board, to, them, occupied, enemy) == 0) {
+            moves.add(Move.encode(king, to, null, Move.CASTLE));
+        }
+    }
+
+    private static void addPawnMoves(ChessBoard board, ChessGame.TeamColor us, long fromMask, int king,
+                                     long checkMask, long pinned, MoveList moves) {
+        ChessGame.TeamColor them = opponent(us);
+        long enemy = board.getOccupancy(them);
+        long occupied = board.getOccupancy();
+        int forward = us == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int enPassant = board.getEnPassantSquare();
+        for (long pawns = board.getBitboard(us, ChessPiece.PieceType.PAWN) & fromMask; pawns != 0; pawns &= pawns - 1) {
+            int from = Bitboard.first(pawns);
+            long targets = pawnTargets(us, from, enemy, occupied);
+            long pinLine = Bitboard.contains(pinned, from) ? Bitboard.line(king, from) : -1L;
+            targets &= checkMask & pinLine;
+            for (; targets != 0; targets &= targets - 1) {
+                int to = Bitboard.first(targets);
+                int flags = Bitboard.contains(enemy, to) ? Move.CAPTURE : to - from == 2 * forward ? Move.DOUBLE_PUSH : 0;
+                if (Bitboard.row(to) == 1 || Bitboard.row(to) == 8) {
+                    for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                        moves.add(Move.encode(from, to, promotion, flags));
+                    }
+                } else {
+                    moves.add(Move.encode(from, to, null, flags));
+                }
+            }
+            if (enPassant >= 0 && Bitboard.contains(Bitboard.pawnAttacks(us, from), enPassant) &&
+                    Bitboard.contains(board.getBitboard(them, ChessPiece.PieceType.PAWN), (from & ~7) | (enPassant & 7)) &&
+                    enPassantIsLegal(board, us, king, from, enPassant)) {
+                moves.add(Move.encode(from, enPassant, null, Move.CAPTURE | Move.EN_PASSANT));
+            }
+        }
+    }
+
+    /**
+     * Plays out an en passant capture on a copy of the occupancy and checks whether the king is attacked afterwards.
+     */
+    private static boolean enPassantIsLegal(ChessBoard board, ChessGame.TeamColor us, int king, int from, int to) {
+        if (king < 0) {
+            return true;
+        }
+        int captured = (from & ~7) | (to & 7);
+        long occupied = (board.getOccupancy() & ~Bitboard.bit(from) & ~Bitboard.bit(captured)) | Bitboard.bit(to);
+        long enemy = board.getOccupancy(opponent(us)) & ~Bitboard.bit(captured);
+        return attackers(board, king, opponent(us), occupied, enemy) == 0;
+    }
+
+    /**
+     * @param board     the board whose pieces are considered
+     * @param square    the square that may be attacked
+     * @param them      the team whose attacks are looked for
+     * @param occupied  the occupancy sliding attacks are blocked by
+     * @param attackers which of the attacking team's pieces still count
+     * @return the squares of the attacking team's pieces that attack the square
+     */
+    static long attackers(ChessBoard board, int square, ChessGame.TeamColor them, long occupied, long attackers) {
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+        long found = (Bitboard.knightAttacks(square) & board.getBitboard(them, ChessPiece.PieceType.KNIGHT)) |
+                (Bitboard.kingAttacks(square) & board.getBitboard(them, ChessPiece.PieceType.KING)) |
+                (Bitboard.pawnAttacks(opponent(them), square) & board.getBitboard(them, ChessPiece.PieceType.PAWN)) |
+                (Bitboard.rookAttacks(square, occupied) & (board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens)) |
+                (Bitboard.bishopAttacks(square, occupied) &
+                        (board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens));
+        return found & attackers;
+    }
+
+    /**
+     * @return the squares of the given team's pieces that are the only piece between their king and an
+     * opposing rook, bishop or queen
+     */
+    private static long pinnedPieces(ChessBoard board, int king, ChessGame.TeamColor us) {
+        ChessGame.TeamColor them = opponent(us);
+        long enemy = board.getOccupancy(them);
+        long queens = board.getBitboard(them, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboard.rookAttacks(king, enemy) & (board.getBitboard(them, ChessPiece.PieceType.ROOK) | queens)) |
+                (Bitboard.bishopAttacks(king, enemy) & (board.getBitboard(them, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Bitboard.between(king, Bitboard.first(snipers)) & board.getOccupancy();
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.getOccupancy(us);
+            }
+        }
+        return pinned;
+    }
+
+    private static void addMoves(int from, long targets, long enemy, MoveList moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Bitboard.first(targets);
+            moves.add(Move.encode(from, to, null, Bitboard.contains(enemy, to) ? Move.CAPTURE : 0));
+        }
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
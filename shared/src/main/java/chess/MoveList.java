@@ -0,0 +1,76 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable buffer of packed {@link Move} ints.
+ * <p>
+ * Move generation writes into one of these instead of allocating a collection of
+ * ChessMove objects. Clearing the list keeps its storage, so a list kept per search
+ * ply or per caller stops allocating once it has grown to fit the largest position.
+ */
+public class MoveList {
+
+    /** More than the largest number of legal moves in any reachable chess position. */
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        moves = new int[DEFAULT_CAPACITY];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the generated move with the same start, end and promotion as the given one, or {@link Move#NONE}
+     */
+    public int find(ChessMove move) {
+        int base = Move.base(move);
+        for (int i = 0; i < size; i++) {
+            if (Move.base(moves[i]) == base) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return the moves converted to ChessMove objects, for handing out through the public API
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
@@ -0,0 +1,115 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * Walks the move tree below a position on several cores at once.
+ * <p>
+ * The legal moves at the root are split into fork/join tasks, and each task plays its
+ * move on its own copy of the game, so no board is ever shared between threads.
+ * Perft keeps splitting further down while enough depth remains to make a task worth
+ * forking. The split below the root is also open to any evaluation that can be run on
+ * a copy of the game.
+ */
+public final class ParallelMoveTree {
+
+    /** Subtrees this shallow are counted on the current thread rather than split further. */
+    private static final int SEQUENTIAL_DEPTH = 3;
+
+    private ParallelMoveTree() {}
+
+    /**
+     * @return the same count as {@link ChessGame#perft(int)}, computed on the common fork/join pool
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param game  the position to count from, which is not changed
+     * @param depth how many plies deep to count
+     * @param pool  the pool whose threads do the counting
+     * @return the same count as {@link ChessGame#perft(int)}
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(new ChessGame(game), depth));
+    }
+
+    /**
+     * Plays each legal move on its own copy of the game and evaluates the resulting positions in parallel.
+     *
+     * @param game      the position whose moves are evaluated, which is not changed
+     * @param evaluator what to compute for the position after each move; it may change the copy it is given
+     * @param pool      the pool whose threads run the evaluator
+     * @return the evaluator's result for each legal move, in generation order
+     */
+    public static <T> Map<ChessMove, T> evaluateSubtrees(ChessGame game, Function<ChessGame, T> evaluator,
+                                                         ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<>() {
+            @Override
+            protected Map<ChessMove, T> compute() {
+                MoveList moves = new MoveList();
+                game.legalMoves(game.getTeamTurn(), moves);
+                List<RecursiveTask<T>> tasks = new ArrayList<>(moves.size());
+                for (int i = 0; i < moves.size(); i++) {
+                    int move = moves.get(i);
+                    RecursiveTask<T> task = new RecursiveTask<>() {
+                        @Override
+                        protected T compute() {
+                            ChessGame child = new ChessGame(game);
+                            child.doMove(move);
+                            return evaluator.apply(child);
+                        }
+                    };
+                    tasks.add(task);
+                    task.fork();
+                }
+                Map<ChessMove, T> results = new LinkedHashMap<>();
+                for (int i = 0; i < moves.size(); i++) {
+                    results.put(Move.toChessMove(moves.get(i)), tasks.get(i).join());
+                }
+                return results;
+            }
+        });
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient ChessGame game;
+        private final int depth;
+
+        PerftTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                return game.perft(depth);
+            }
+            MoveList moves = new MoveList();
+            game.legalMoves(game.getTeamTurn(), moves);
+            List<PerftTask> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessGame child = new ChessGame(game);
+                child.doMove(moves.get(i));
+                PerftTask task = new PerftTask(child, depth - 1);
+                tasks.add(task);
+                task.fork();
+            }
+            long nodes = 0;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+}
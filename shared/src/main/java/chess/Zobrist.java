@@ -0,0 +1,68 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * <p>
+ * A position's key is the XOR of one key per piece on its square, one for the castling
+ * rights still held, one for the file of a capturable en passant square, and one more
+ * when black is to move. The keys come from a fixed-seed generator, so a position hashes
+ * to the same value in every run and on both client and server.
+ */
+final class Zobrist {
+
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[ChessBoard.ALL_CASTLING_RIGHTS + 1];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    private static long seed = 0x2545F4914F6CDD1DL;
+
+    static {
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = next();
+        }
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            rights[i] = next();
+        }
+        for (int set = 0; set < CASTLING.length; set++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((set & 1 << i) != 0) {
+                    CASTLING[set] ^= rights[i];
+                }
+            }
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = next();
+        }
+        BLACK_TO_MOVE = next();
+    }
+
+    private Zobrist() {}
+
+    /**
+     * @param index the piece's index on the board, team ordinal * 6 + type ordinal
+     */
+    static long piece(int index, int square) {
+        return PIECE_SQUARE[index * 64 + square];
+    }
+
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    static long enPassant(int square) {
+        return EN_PASSANT_FILE[square & 7];
+    }
+
+    /**
+     * One step of the SplitMix64 generator, written out so the keys never depend on a library implementation.
+     */
+    private static long next() {
+        seed += 0x9E3779B97F4A7C15L;
+        long z = seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
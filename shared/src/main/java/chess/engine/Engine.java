@@ -0,0 +1,143 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Picks moves for the team whose turn it is.
+ * <p>
+ * Each search runs on its own copy of the game, made once at the root, and then plays
+ * and takes back moves on that copy, so the caller's game is never changed and may keep
+ * being read while the engine thinks.
+ * <p>
+ * An engine keeps one {@link TranspositionTable} across searches, so positions analysed
+ * for one move are remembered for the next.
+ * <p>
+ * With more than one thread the engine searches Lazy SMP style: helper threads search
+ * the same root on their own copies of the game, every other one a ply deeper, and they
+ * only cooperate through the shared table. The calling thread's search decides when to
+ * stop, by its limits, and the helpers are then aborted. The answer comes from whichever
+ * thread completed the deepest iteration.
+ */
+public class Engine implements AutoCloseable {
+
+    private final TranspositionTable table;
+    private final int threads;
+    private ExecutorService helpers;
+
+    public Engine() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * @param table the transposition table searches look results up in and store them to
+     */
+    public Engine(TranspositionTable table) {
+        this(table, 1);
+    }
+
+    /**
+     * @param table   the transposition table searches look results up in and store them to
+     * @param threads how many threads search at once, including the calling thread
+     */
+    public Engine(TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("An engine needs at least one thread");
+        }
+        this.table = table;
+        this.threads = threads;
+    }
+
+    /**
+     * @param game   the position to pick a move in, which is not changed
+     * @param limits when the search has to answer
+     * @return the best move found, or null if the team to move has no legal move
+     */
+    public ChessMove bestMove(ChessGame game, SearchLimits limits) {
+        return search(game, limits).move();
+    }
+
+    /**
+     * @param game   the position to search, which is not changed
+     * @param limits when the search has to answer; the node limit counts the calling thread's nodes only
+     * @return the best move found along with its score, the depth reached and the nodes searched by all threads
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        AtomicBoolean abort = new AtomicBoolean();
+        Search main = new Search(new ChessGame(game), limits, table, abort, 0);
+        if (threads == 1) {
+            return main.run();
+        }
+
+        SearchLimits helperLimits = limits.withNodes(Long.MAX_VALUE);
+        List<Future<SearchResult>> results = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            Search helper = new Search(new ChessGame(game), helperLimits, table, abort, i & 1);
+            results.add(helperPool().submit(helper::run));
+        }
+        SearchResult best;
+        try {
+            best = main.run();
+        } finally {
+            abort.set(true);
+        }
+        long nodes = best.nodes();
+        for (Future<SearchResult> future : results) {
+            SearchResult result = join(future);
+            nodes += result.nodes();
+            if (result.depth() > best.depth() && result.move() != null) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.move(), best.score(), best.depth(), nodes);
+    }
+
+    /**
+     * @return the number of threads each search uses
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Stops the helper threads. The engine can still search afterwards, and starts new ones if it needs them.
+     */
+    @Override
+    public synchronized void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+            helpers = null;
+        }
+    }
+
+    private synchronized ExecutorService helperPool() {
+        if (helpers == null) {
+            helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return helpers;
+    }
+
+    private static SearchResult join(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for search threads", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A search thread failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package chess.engine;
+
+import chess.Bitboard;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Scores a position by material and piece-square tables.
+ * <p>
+ * Each piece is worth its material value plus a bonus or penalty for the square it
+ * stands on. The king has one table for the middlegame and one for the endgame, blended
+ * by how much material other than pawns is left. Material and square bonus are folded
+ * into one table per piece and square when the class loads, so scoring a position is one
+ * lookup per piece.
+ */
+public final class Evaluation {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+
+    /** Material values in centipawns, indexed by piece type ordinal. */
+    private static final int[] MATERIAL = new int[TYPES.length];
+
+    /** Phase weight of each piece type, adding up to {@link #FULL_PHASE} for the starting material. */
+    private static final int[] PHASE = new int[TYPES.length];
+    private static final int FULL_PHASE = 24;
+
+    // The tables below are drawn from White's side with rank 8 at the top, as they would be printed.
+
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0};
+
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20};
+
+    private static final int[] KING_MIDDLEGAME_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20};
+
+    private static final int[] KING_ENDGAME_TABLE = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+
+    /** Material plus square bonus, indexed by team ordinal, then piece type ordinal, then square. */
+    private static final int[][][] VALUES = new int[2][TYPES.length][64];
+    private static final int[][] KING_ENDGAME = new int[2][64];
+
+    static {
+        MATERIAL[ChessPiece.PieceType.PAWN.ordinal()] = 100;
+        MATERIAL[ChessPiece.PieceType.KNIGHT.ordinal()] = 320;
+        MATERIAL[ChessPiece.PieceType.BISHOP.ordinal()] = 330;
+        MATERIAL[ChessPiece.PieceType.ROOK.ordinal()] = 500;
+        MATERIAL[ChessPiece.PieceType.QUEEN.ordinal()] = 900;
+        PHASE[ChessPiece.PieceType.KNIGHT.ordinal()] = 1;
+        PHASE[ChessPiece.PieceType.BISHOP.ordinal()] = 1;
+        PHASE[ChessPiece.PieceType.ROOK.ordinal()] = 2;
+        PHASE[ChessPiece.PieceType.QUEEN.ordinal()] = 4;
+        for (ChessPiece.PieceType type : TYPES) {
+            int[] table = switch (type) {
+                case PAWN -> PAWN_TABLE;
+                case KNIGHT -> KNIGHT_TABLE;
+                case BISHOP -> BISHOP_TABLE;
+                case ROOK -> ROOK_TABLE;
+                case QUEEN -> QUEEN_TABLE;
+                case KING -> KING_MIDDLEGAME_TABLE;
+            };
+            fill(VALUES[0][type.ordinal()], VALUES[1][type.ordinal()], table, MATERIAL[type.ordinal()]);
+        }
+        fill(KING_ENDGAME[0], KING_ENDGAME[1], KING_ENDGAME_TABLE, 0);
+    }
+
+    private Evaluation() {}
+
+    /**
+     * Fills a white and a black table from a printed one, mirroring it for black.
+     */
+    private static void fill(int[] white, int[] black, int[] table, int material) {
+        for (int square = 0; square < 64; square++) {
+            int rank = square >>> 3;
+            int file = square & 7;
+            white[square] = material + table[(7 - rank) * 8 + file];
+            black[square] = material + table[rank * 8 + file];
+        }
+    }
+
+    /**
+     * @return the score of the game's position in centipawns from the point of view of the team to move
+     */
+    public static int evaluate(ChessGame game) {
+        return evaluate(game.getBoard(), game.getTeamTurn());
+    }
+
+    /**
+     * @param board       the position to score
+     * @param perspective the team the score is for
+     * @return the score in centipawns, positive when the position favours the given team
+     */
+    public static int evaluate(ChessBoard board, ChessGame.TeamColor perspective) {
+        int middlegame = 0;
+        int phase = 0;
+        int kingEndgame = 0;
+        for (ChessGame.TeamColor color : COLORS) {
+            int sign = color == perspective ? 1 : -1;
+            int[][] values = VALUES[color.ordinal()];
+            for (ChessPiece.PieceType type : TYPES) {
+                long pieces = board.getBitboard(color, type);
+                phase += PHASE[type.ordinal()] * Long.bitCount(pieces);
+                int[] table = values[type.ordinal()];
+                for (; pieces != 0; pieces &= pieces - 1) {
+                    middlegame += sign * table[Bitboard.first(pieces)];
+                }
+            }
+            long king = board.getBitboard(color, ChessPiece.PieceType.KING);
+            if (king != 0) {
+                int square = Bitboard.first(king);
+                kingEndgame += sign * (KING_ENDGAME[color.ordinal()][square] -
+                        values[ChessPiece.PieceType.KING.ordinal()][square]);
+            }
+        }
+        // Only the king's square bonus changes with the phase, so the endgame table is applied as a correction
+        phase = Math.min(phase, FULL_PHASE);
+        return middlegame + kingEndgame * (FULL_PHASE - phase) / FULL_PHASE;
+    }
+
+    /**
+     * @return the material value of a piece type in centipawns, with the king counted as nothing
+     */
+    public static int materialValue(ChessPiece.PieceType type) {
+        return MATERIAL[type.ordinal()];
+    }
+}
@@ -0,0 +1,159 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Scores moves so a search can try the likeliest cutoffs first.
+ * <p>
+ * From best to worst: the move stored in the transposition table, captures by most
+ * valuable victim and then least valuable attacker (MVV-LVA), queen promotions, the two
+ * killer moves that last caused a cutoff at the same ply, and then other quiet moves by
+ * how often they have caused cutoffs anywhere in the tree (the butterfly history, indexed
+ * by team, from square and to square). Underpromotions that capture nothing come last,
+ * while one that captures keeps its MVV-LVA place among the captures.
+ * <p>
+ * Scores live in one int array per ply alongside the {@link MoveList}, and
+ * {@link #next(MoveList, int, int)} picks the best remaining move each time it is called,
+ * so a node that cuts off after one or two moves never pays to sort the rest. Killers and
+ * history are plain int arrays, and each search keeps its own orderer.
+ */
+final class MoveOrderer {
+
+    private static final int HASH_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 28;
+    private static final int PROMOTION = 1 << 27;
+    private static final int FIRST_KILLER = 1 << 26;
+    private static final int SECOND_KILLER = FIRST_KILLER - 1;
+    private static final int UNDERPROMOTION = -1;
+
+    /** History scores are halved once any of them passes this, so they stay below the killers. */
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int KING_ATTACKER_VALUE = 1_000;
+
+    private final int[][] scores = new int[Search.MAX_PLY][256];
+    private final int[] killers = new int[Search.MAX_PLY * 2];
+    private final int[] history = new int[2 * 64 * 64];
+
+    /**
+     * Scores every move in the list for a full-width node
+     *
+     * @param board    the position the moves are for
+     * @param us       the team the moves are for
+     * @param moves    the moves to score
+     * @param ply      the distance from the root, which selects the killers and the score array
+     * @param hashMove the move from the transposition table, or {@link Move#NONE}
+     */
+    void score(ChessBoard board, ChessGame.TeamColor us, MoveList moves, int ply, int hashMove) {
+        int[] plyScores = scoresFor(ply, moves.size());
+        int offset = us.ordinal() * 64 * 64;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score;
+            if (move == hashMove) {
+                score = HASH_MOVE;
+            } else if (isTactical(move)) {
+                score = tacticalScore(board, move);
+            } else if (move == killers[ply * 2]) {
+                score = FIRST_KILLER;
+            } else if (move == killers[ply * 2 + 1]) {
+                score = SECOND_KILLER;
+            } else {
+                score = history[offset + Move.from(move) * 64 + Move.to(move)];
+            }
+            plyScores[i] = score;
+        }
+    }
+
+    /**
+     * Scores only captures and promotions, for the quiescence search, leaving quiet moves at the bottom
+     */
+    void scoreTactical(ChessBoard board, MoveList moves, int ply) {
+        int[] plyScores = scoresFor(ply, moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            plyScores[i] = isTactical(move) ? tacticalScore(board, move) :
+                    Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * @return whether the move is one {@link #scoreTactical} ranked above the quiet moves
+     */
+    static boolean isTactical(int move) {
+        return Move.isCapture(move) || Move.isPromotion(move);
+    }
+
+    private static int tacticalScore(ChessBoard board, int move) {
+        int score = 0;
+        if (Move.isCapture(move)) {
+            ChessPiece.PieceType victim = Move.isEnPassant(move) ? ChessPiece.PieceType.PAWN :
+                    board.getPiece(Move.to(move)).getPieceType();
+            ChessPiece.PieceType attacker = board.getPiece(Move.from(move)).getPieceType();
+            int attackerValue = attacker == ChessPiece.PieceType.KING ? KING_ATTACKER_VALUE :
+                    Evaluation.materialValue(attacker);
+            score = CAPTURE + Evaluation.materialValue(victim) * 16 - attackerValue / 10;
+        }
+        if (Move.isPromotion(move)) {
+            score += Move.promotion(move) == ChessPiece.PieceType.QUEEN ? PROMOTION : UNDERPROMOTION;
+        }
+        return score;
+    }
+
+    /**
+     * Swaps the best scored move from index onwards into index and returns it
+     *
+     * @param moves the moves scored for this ply
+     * @param ply   the ply they were scored for
+     * @param index how many moves have already been picked
+     * @return the best move not yet picked
+     */
+    int next(MoveList moves, int ply, int index) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            int score = plyScores[best];
+            moves.set(best, moves.get(index));
+            plyScores[best] = plyScores[index];
+            moves.set(index, move);
+            plyScores[index] = score;
+        }
+        return move;
+    }
+
+    /**
+     * Remembers a quiet move that caused a beta cutoff, as a killer for its ply and in the history table
+     */
+    void recordCutoff(ChessGame.TeamColor us, int move, int depth, int ply) {
+        if (isTactical(move)) {
+            return;
+        }
+        if (killers[ply * 2] != move) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = move;
+        }
+        int index = us.ordinal() * 64 * 64 + Move.from(move) * 64 + Move.to(move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < history.length; i++) {
+                history[i] /= 2;
+            }
+        }
+    }
+
+    private int[] scoresFor(int ply, int size) {
+        if (scores[ply].length < size) {
+            scores[ply] = new int[Math.max(size, scores[ply].length * 2)];
+        }
+        return scores[ply];
+    }
+}
@@ -0,0 +1,269 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One iterative-deepening negamax alpha-beta search over a single game.
+ * <p>
+ * The search plays moves with {@link ChessGame#doMove(int)} and takes them back with
+ * {@link ChessGame#undoMove()}, so the only position it ever holds is the game it was
+ * given. Each ply reuses its own {@link MoveList}, and a {@link MoveOrderer} hands out
+ * the moves best first. At the horizon a quiescence search
+ * follows captures and promotions until the position is quiet, so the evaluation is not
+ * taken in the middle of an exchange.
+ * <p>
+ * Results are kept in a {@link TranspositionTable}, which may be shared with other
+ * searches. A stored bound that is deep enough answers a node outright, and otherwise
+ * the stored move is searched first. Mate scores are stored relative to the node rather
+ * than the root, so they stay correct when the position is reached at another ply.
+ * <p>
+ * Several searches may run on the same position at once, each on its own copy of the
+ * game and all sharing one table and one abort flag. A search given a depth offset
+ * iterates that many plies deeper than the others, so the threads spread out over the
+ * tree instead of all searching the same nodes in step.
+ * <p>
+ * Limits are checked as nodes are counted, and once one is hit the search unwinds and
+ * answers from the deepest iteration it completed. Moves from an unfinished iteration
+ * are still used, since the previous best move is always searched first and anything
+ * that beat it at the new depth is at least as good.
+ */
+final class Search {
+
+    static final int MATE = 32_000;
+    static final int INFINITY = MATE + 1;
+    static final int MAX_PLY = 128;
+
+    /** How many nodes are searched between looks at the clock. */
+    private static final int CLOCK_INTERVAL = 1024;
+
+    private final ChessGame game;
+    private final SearchLimits limits;
+    private final TranspositionTable table;
+    private final AtomicBoolean abort;
+    private final int depthOffset;
+    private final long start;
+    private final long budget;
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final MoveOrderer orderer = new MoveOrderer();
+    private long nodes;
+    private boolean stopped;
+
+    /**
+     * @param game        the game to search, which is changed during the search and restored afterwards
+     * @param limits      when the search has to stop
+     * @param table       where results are looked up and stored
+     * @param abort       set by another thread to stop the search early
+     * @param depthOffset how many plies deeper than usual each iteration searches
+     */
+    Search(ChessGame game, SearchLimits limits, TranspositionTable table, AtomicBoolean abort, int depthOffset) {
+        this.game = game;
+        this.limits = limits;
+        this.table = table;
+        this.abort = abort;
+        this.depthOffset = depthOffset;
+        this.start = System.nanoTime();
+        this.budget = TimeUnit.MILLISECONDS.toNanos(limits.millis());
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+        }
+    }
+
+    SearchResult run() {
+        MoveList root = moveLists[0];
+        root.clear();
+        game.legalMoves(game.getTeamTurn(), root);
+        if (root.isEmpty()) {
+            return new SearchResult(null, game.isInCheck(game.getTeamTurn()) ? -MATE : 0, 0, 0);
+        }
+        orderer.score(game.getBoard(), game.getTeamTurn(), root, 0, Move.NONE);
+        for (int i = 0; i < root.size(); i++) {
+            orderer.next(root, 0, i);
+        }
+        int bestMove = root.get(0);
+        int bestScore = -INFINITY;
+        int completedDepth = 0;
+        int maxDepth = Math.min(limits.depth() + depthOffset, SearchLimits.MAX_DEPTH);
+        for (int depth = 1 + depthOffset; depth <= maxDepth && !stopped; depth++) {
+            int iterationMove = Move.NONE;
+            int iterationScore = -INFINITY;
+            for (int i = 0; i < root.size(); i++) {
+                int move = root.get(i);
+                game.doMove(move);
+                int score = -negamax(depth - 1, -INFINITY, -iterationScore, 1);
+                game.undoMove();
+                if (stopped) {
+                    break;
+                }
+                if (score > iterationScore) {
+                    iterationScore = score;
+                    iterationMove = move;
+                }
+            }
+            if (iterationMove != Move.NONE) {
+                bestMove = iterationMove;
+                bestScore = iterationScore;
+            }
+            if (!stopped) {
+                completedDepth = depth;
+                table.store(game.zobristKey(), bestMove, bestScore, depth, TranspositionTable.EXACT);
+                moveToFront(root, bestMove);
+                if (Math.abs(bestScore) >= MATE - MAX_PLY) {
+                    break;
+                }
+            }
+        }
+        if (bestScore == -INFINITY) {
+            bestScore = Evaluation.evaluate(game);
+        }
+        return new SearchResult(Move.toChessMove(bestMove), bestScore, completedDepth, nodes);
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        if (game.isDrawByFiftyMoveRule() || game.isDrawByRepetition() || game.isDrawByInsufficientMaterial()) {
+            return 0;
+        }
+        long key = game.zobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT || bound == TranspositionTable.LOWER && score >= beta ||
+                        bound == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.legalMoves(game.getTeamTurn(), moves);
+        if (moves.isEmpty()) {
+            return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluation.evaluate(game);
+        }
+        orderer.score(game.getBoard(), game.getTeamTurn(), moves, ply, hashMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = orderer.next(moves, ply, i);
+            game.doMove(move);
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        orderer.recordCutoff(game.getTeamTurn(), move, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER : best > originalAlpha ? TranspositionTable.EXACT :
+                TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * @return a score with mates counted from the node instead of from the root, for storing in the table
+     */
+    private static int toTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score + ply : score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE - MAX_PLY ? score - ply : score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+
+    /**
+     * Searches only captures and promotions, letting the side to move stand on the static evaluation instead if
+     * that is already good enough.
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        if (countNode()) {
+            return 0;
+        }
+        int standPat = Evaluation.evaluate(game);
+        if (standPat >= beta || ply >= MAX_PLY - 1) {
+            return standPat;
+        }
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.legalMoves(game.getTeamTurn(), moves);
+        if (moves.isEmpty()) {
+            return game.isInCheck(game.getTeamTurn()) ? -MATE + ply : 0;
+        }
+        alpha = Math.max(alpha, standPat);
+        orderer.scoreTactical(game.getBoard(), moves, ply);
+        int best = standPat;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = orderer.next(moves, ply, i);
+            if (!MoveOrderer.isTactical(move)) {
+                break;
+            }
+            game.doMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and checks the limits.
+     *
+     * @return whether the search has to stop
+     */
+    private boolean countNode() {
+        if (!stopped && (++nodes >= limits.nodes() ||
+                nodes % CLOCK_INTERVAL == 0 && (abort.get() || System.nanoTime() - start >= budget))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private static void moveToFront(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                for (int j = i; j > 0; j--) {
+                    moves.set(j, moves.get(j - 1));
+                }
+                moves.set(0, move);
+                return;
+            }
+        }
+    }
+}
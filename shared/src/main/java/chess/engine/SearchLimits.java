@@ -0,0 +1,58 @@
+package chess.engine;
+
+/**
+ * How far a search may go before it must answer. The search stops at whichever limit is
+ * reached first, and always answers with the best move from the deepest search it got
+ * through.
+ *
+ * @param depth  the deepest iteration to search, in plies
+ * @param nodes  how many positions may be visited in total
+ * @param millis how long the search may run, in milliseconds
+ */
+public record SearchLimits(int depth, long nodes, long millis) {
+
+    /** The deepest any search goes, however generous its other limits. */
+    public static final int MAX_DEPTH = 64;
+
+    public static final SearchLimits NONE = new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    public SearchLimits {
+        if (depth < 1 || nodes < 1 || millis < 1) {
+            throw new IllegalArgumentException("Search limits must be positive");
+        }
+        depth = Math.min(depth, MAX_DEPTH);
+    }
+
+    /**
+     * @return limits that only bound the search depth
+     */
+    public static SearchLimits depth(int depth) {
+        return NONE.withDepth(depth);
+    }
+
+    /**
+     * @return limits that only bound the number of positions visited
+     */
+    public static SearchLimits nodes(long nodes) {
+        return NONE.withNodes(nodes);
+    }
+
+    /**
+     * @return limits that only bound the time taken
+     */
+    public static SearchLimits millis(long millis) {
+        return NONE.withMillis(millis);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+
+    public SearchLimits withMillis(long millis) {
+        return new SearchLimits(depth, nodes, millis);
+    }
+}
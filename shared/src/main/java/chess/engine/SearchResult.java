@@ -0,0 +1,21 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * What a search found.
+ *
+ * @param move  the best move, or null if the side to move has no legal move
+ * @param score the score of the move in centipawns from the mover's point of view, see {@link #isMate()}
+ * @param depth the depth of the deepest iteration the move comes from
+ * @param nodes how many positions were visited
+ */
+public record SearchResult(ChessMove move, int score, int depth, long nodes) {
+
+    /**
+     * @return whether the score is a forced mate, for either side, rather than an evaluation
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+}
@@ -0,0 +1,156 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results keyed by Zobrist key, shared by every thread
+ * searching the same game without any locking.
+ * <p>
+ * Each entry is two longs in one flat array: the entry's data, packed as below, and the
+ * position key XORed with that data. A probe accepts an entry only if XORing the two
+ * longs gives back the key it is looking for, so an entry that another thread was half
+ * way through writing fails the check and simply reads as a miss. Probing and storing
+ * only read and write the array, so the table never allocates once it is built.
+ * <p>
+ * Data layout, from the low bits up: the {@link chess.Move} in 20 bits, the score as a
+ * signed 16 bit value, the depth in 8 bits, the {@link #EXACT}, {@link #LOWER} or
+ * {@link #UPPER} bound in 2 bits, and the generation of the search that stored it in 8
+ * bits. Bounds start at 1, so valid data is never 0 and 0 can stand for a miss.
+ */
+public final class TranspositionTable {
+
+    /** What {@link #probe(long)} returns when the position is not in the table. */
+    public static final long MISS = 0;
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int MOVE_BITS = 20;
+    private static final int SCORE_SHIFT = 20;
+    private static final int DEPTH_SHIFT = 36;
+    private static final int BOUND_SHIFT = 44;
+    private static final int GENERATION_SHIFT = 46;
+
+    /**
+     * Decides whether a new result may overwrite the entry already in its slot.
+     */
+    public enum ReplacementPolicy {
+        /** The newest result always wins. */
+        ALWAYS,
+        /** A result only replaces one searched at least as deep, so expensive results survive. */
+        DEPTH_PREFERRED,
+        /** Like DEPTH_PREFERRED, but anything left over from an earlier search can be replaced. */
+        AGED;
+
+        boolean replaces(long stored, int depth, int generation) {
+            return switch (this) {
+                case ALWAYS -> true;
+                case DEPTH_PREFERRED -> depth >= depth(stored);
+                case AGED -> generation(stored) != generation || depth >= depth(stored);
+            };
+        }
+    }
+
+    private final long[] entries;
+    private final int mask;
+    private final ReplacementPolicy policy;
+    private volatile int generation;
+
+    public TranspositionTable() {
+        this(DEFAULT_MEGABYTES, ReplacementPolicy.AGED);
+    }
+
+    /**
+     * @param megabytes the most memory the table may use; the entry count is rounded down to a power of two
+     * @param policy    when a new result replaces the one already stored in its slot
+     */
+    public TranspositionTable(int megabytes, ReplacementPolicy policy) {
+        if (megabytes < 1 || megabytes > 8_192) {
+            throw new IllegalArgumentException("Transposition table size must be between 1 MB and 8 GB");
+        }
+        long count = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        entries = new long[(int) count * 2];
+        mask = (int) count - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * @return the number of positions the table can hold
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Marks the start of a new search, so the {@link ReplacementPolicy#AGED} policy can tell its results from
+     * older ones
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * @param key the Zobrist key of the position
+     * @return the packed data stored for the position, read with the static accessors, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int index = ((int) key & mask) << 1;
+        long data = entries[index + 1];
+        return (entries[index] ^ data) == key ? data : MISS;
+    }
+
+    /**
+     * Stores a search result, unless the replacement policy keeps the entry already in its slot, whether that entry
+     * is for the same position or another one that shares the slot.
+     *
+     * @param key   the Zobrist key of the position
+     * @param move  the best move found, or {@link chess.Move#NONE}
+     * @param score the score, which must fit in 16 bits
+     * @param depth the depth searched, from 0 to 255
+     * @param bound whether the score is {@link #EXACT}, a {@link #LOWER} bound or an {@link #UPPER} bound
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & mask) << 1;
+        long stored = entries[index + 1];
+        int current = generation;
+        if (stored != MISS && !policy.replaces(stored, depth, current)) {
+            return;
+        }
+        long data = (move & ((1L << MOVE_BITS) - 1)) | (score & 0xFFFFL) << SCORE_SHIFT |
+                (long) (depth & 0xFF) << DEPTH_SHIFT | (long) bound << BOUND_SHIFT |
+                (long) current << GENERATION_SHIFT;
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+
+    public static int move(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT & 3);
+    }
+
+    static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT & 0xFF);
+    }
+}
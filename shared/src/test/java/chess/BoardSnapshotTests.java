@@ -0,0 +1,82 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoardSnapshotTests {
+
+    @Test
+    @DisplayName("Snapshots Keep Their Position")
+    public void snapshotsKeepPosition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        BoardSnapshot snapshot = game.getSnapshot();
+        String fen = game.toFen();
+        Assertions.assertEquals(fen, snapshot.toFen());
+        Assertions.assertEquals(game.zobristKey(), snapshot.zobristKey());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, snapshot.getTeamTurn());
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                snapshot.getPiece(new ChessPosition(4, 5)));
+        Assertions.assertNull(snapshot.getPiece(new ChessPosition(2, 5)));
+
+        game.perft(2);
+        game.doMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Assertions.assertSame(snapshot, game.getSnapshot(), "Trial moves should not publish a snapshot");
+        game.undoMove();
+
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Assertions.assertNotSame(snapshot, game.getSnapshot());
+        Assertions.assertEquals(fen, snapshot.toFen());
+        Assertions.assertEquals(game.toFen(), game.getSnapshot().toFen());
+        Assertions.assertEquals(game.getBoard(), game.getSnapshot().toBoard());
+    }
+
+    @Test
+    @DisplayName("Every Way Of Setting Up A Game Publishes A Snapshot")
+    public void setupPublishesSnapshot() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        Assertions.assertEquals(game.toFen(), game.getSnapshot().toFen());
+        Assertions.assertEquals(game.toFen(), ChessGameCodec.decode(ChessGameCodec.encode(game)).getSnapshot().toFen());
+        Assertions.assertEquals(game.toFen(), ChessGson.create().fromJson(ChessGson.create().toJson(game),
+                ChessGame.class).getSnapshot().toFen());
+        Assertions.assertEquals(game.toFen(), new ChessGame(game).getSnapshot().toFen());
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getSnapshot().getTeamTurn());
+        game.setBoard(new ChessBoard());
+        Assertions.assertEquals(0, game.getSnapshot().getBitboard(ChessGame.TeamColor.WHITE,
+                ChessPiece.PieceType.KING));
+    }
+
+    @Test
+    @DisplayName("Readers On Other Threads See Whole Positions")
+    public void readersSeeWholePositions() throws InterruptedException {
+        ChessGame game = new ChessGame();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                BoardSnapshot snapshot = game.getSnapshot();
+                ChessGame copy = snapshot.toGame();
+                if (copy.zobristKey() != snapshot.zobristKey() ||
+                        Long.bitCount(snapshot.getBitboard(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)) != 1) {
+                    failure.set(snapshot.toFen());
+                    return;
+                }
+            }
+        });
+        reader.start();
+        try {
+            RandomGames.play(game, new Random(211), 200, (current, moves) -> current.perft(2));
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        Assertions.assertNull(failure.get(), "Reader saw an inconsistent snapshot");
+    }
+}
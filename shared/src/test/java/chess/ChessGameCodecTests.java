@@ -0,0 +1,98 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class ChessGameCodecTests {
+
+    @Test
+    @DisplayName("Random Games Round Trip")
+    public void randomGamesRoundTrip() {
+        RandomGames.play(516, (game, moves) -> assertRoundTrips(game));
+    }
+
+    @Test
+    @DisplayName("Board Packs Into 32 Bytes")
+    public void compactSize() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(32 + 1 + 4, ChessGameCodec.encode(game).length);
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals(32 + 1 + 4 + 2, ChessGameCodec.encode(game).length);
+    }
+
+    @Test
+    @DisplayName("Repetitions Survive Encoding")
+    public void repetitionsSurvive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            game.makeMove(UciMoves.parse("g1f3"));
+            game.makeMove(UciMoves.parse("g8f6"));
+            game.makeMove(UciMoves.parse("f3g1"));
+            if (i == 1) {
+                game = ChessGameCodec.decode(ChessGameCodec.encode(game));
+            }
+            game.makeMove(UciMoves.parse("f6g8"));
+        }
+        Assertions.assertTrue(game.isDrawByRepetition());
+        Assertions.assertTrue(ChessGameCodec.decode(ChessGameCodec.encode(game)).isIsOver());
+        Assertions.assertEquals(32 + 1 + 4 + 2 * 8, ChessGameCodec.encode(game).length,
+                "Position keys should be rebuilt from the history rather than stored");
+    }
+
+    @Test
+    @DisplayName("Keys The History Cannot Rebuild Are Stored")
+    public void keysStoredWhenNotRebuildable() throws InvalidMoveException {
+        // Started from a FEN with a running halfmove clock, so the history does not reach back far enough
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w Q - 10 30");
+        game.makeMove(UciMoves.parse("e1e2"));
+        game.makeMove(UciMoves.parse("e8e7"));
+        assertRoundTrips(game);
+
+        // The king move gave up castling, so walking back without the old rights gives the wrong keys
+        game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w Q - 0 30");
+        game.makeMove(UciMoves.parse("e1e2"));
+        game.makeMove(UciMoves.parse("e8e7"));
+        Assertions.assertEquals(8 + 8 + 2 + 1 + 8 * 2 + 4 + 2 * 2, ChessGameCodec.encode(game).length);
+        assertRoundTrips(game);
+
+        // Version 1 stored the keys in the same way, so it reads the same bytes
+        byte[] bytes = ChessGameCodec.encode(game);
+        bytes[0] = 1;
+        ChessGame read = ChessGameCodec.decode(bytes);
+        Assertions.assertEquals(game.toFen(), read.toFen());
+        Assertions.assertEquals(game.getPositionKey(2), read.getPositionKey(2));
+    }
+
+    @Test
+    @DisplayName("Invalid Encodings Are Rejected")
+    public void invalidEncodings() {
+        byte[] bytes = ChessGameCodec.encode(new ChessGame());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGameCodec.decode(Arrays.copyOf(bytes, bytes.length - 3)));
+        bytes[0] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(bytes));
+    }
+
+    private static void assertRoundTrips(ChessGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(ChessGameCodec.encodedSize(game) + 3);
+        buffer.put((byte) 7);
+        ChessGameCodec.encode(game, buffer);
+        Assertions.assertEquals(buffer.capacity() - 2, buffer.position());
+        buffer.flip().get();
+        ChessGame read = ChessGameCodec.decode(buffer);
+        Assertions.assertFalse(buffer.hasRemaining());
+        Assertions.assertEquals(game.toFen(), read.toFen());
+        Assertions.assertEquals(game.zobristKey(), read.zobristKey());
+        Assertions.assertEquals(game.getBoard().getHistory(), read.getBoard().getHistory());
+        Assertions.assertEquals(game.isIsOver(), read.isIsOver());
+        Assertions.assertEquals(game.isDrawByRepetition(), read.isDrawByRepetition());
+        Assertions.assertEquals(game.getRepetitionWindow(), read.getRepetitionWindow());
+        for (int back = 1; back <= game.getRepetitionWindow(); back++) {
+            Assertions.assertEquals(game.getPositionKey(back), read.getPositionKey(back), "Key " + back + " plies back");
+        }
+    }
+}
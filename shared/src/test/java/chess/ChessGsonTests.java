@@ -0,0 +1,111 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessGsonTests {
+
+    private final Gson gson = ChessGson.create();
+
+    @Test
+    @DisplayName("Deserialized Positions And Pieces Are Shared")
+    public void deserializedInstancesAreShared() {
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove read = gson.fromJson(gson.toJson(move), ChessMove.class);
+        Assertions.assertEquals(move, read);
+        Assertions.assertSame(ChessPosition.of(2, 5), read.getStartPosition());
+        Assertions.assertSame(ChessPosition.of(4, 5), read.getEndPosition());
+
+        ChessPiece piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT),
+                gson.fromJson(gson.toJson(piece), ChessPiece.class));
+    }
+
+    @Test
+    @DisplayName("Reflective Move JSON Still Reads")
+    public void readsReflectiveMoveJson() {
+        ChessMove move = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN);
+        Assertions.assertEquals(move, gson.fromJson(new Gson().toJson(move), ChessMove.class));
+    }
+
+    @Test
+    @DisplayName("Saved Games Without Castling State Derive It From History")
+    public void derivesCastlingStateFromHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+
+        JsonObject json = new Gson().toJsonTree(game).getAsJsonObject();
+        JsonObject board = json.getAsJsonObject("board");
+        board.remove("castlingRights");
+        board.remove("enPassantSquare");
+        ChessGame read = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE,
+                read.getBoard().getCastlingRights());
+        Assertions.assertEquals(Bitboard.square(6, 4), read.getBoard().getEnPassantSquare());
+    }
+
+    @Test
+    @DisplayName("Games Round Trip Through The Compact Form")
+    public void compactRoundTrip() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        game.makeMove(new ChessMove(new ChessPosition(5, 4), new ChessPosition(6, 4), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 3), new ChessPosition(5, 3), null));
+
+        String json = gson.toJson(game);
+        Assertions.assertTrue(json.contains("\"fen\""), json);
+        Assertions.assertTrue(json.contains("\"d5d6 c7c5\""), json);
+        ChessGame read = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, read);
+        Assertions.assertEquals(game.toFen(), read.toFen());
+        Assertions.assertEquals(game.zobristKey(), read.zobristKey());
+        Assertions.assertEquals(game.getBoard().getHistory(), read.getBoard().getHistory());
+        Assertions.assertEquals(game.validMoves(new ChessPosition(6, 4)), read.validMoves(new ChessPosition(6, 4)));
+
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("\"a7a8n\"", gson.toJson(promotion));
+        Assertions.assertEquals(promotion, gson.fromJson("\"a7a8n\"", ChessMove.class));
+    }
+
+    @Test
+    @DisplayName("Compact Boards And Games Skip Fields They Do Not Know")
+    public void compactFormSkipsUnknownFields() {
+        ChessBoard board = gson.fromJson("{\"pieces\":\"4k3/8/8/8/8/8/4P3/4K3\",\"castlingRights\":0," +
+                "\"enPassantSquare\":-1,\"notes\":{\"a\":[1,2]},\"history\":\"\"}", ChessBoard.class);
+        Assertions.assertEquals(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                board.getPiece(new ChessPosition(2, 5)));
+
+        ChessGame game = gson.fromJson("{\"fen\":\"4k3/8/8/8/8/8/4P3/4K3 w - - 0 1\",\"history\":\"e2e4\"," +
+                "\"clock\":[3,4],\"isOver\":true}", ChessGame.class);
+        Assertions.assertEquals("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1", game.toFen());
+        Assertions.assertEquals(1, game.getBoard().getHistorySize());
+        Assertions.assertTrue(game.isIsOver());
+    }
+
+    @Test
+    @DisplayName("Games Stored With The Original Array Board Still Read")
+    public void readsArrayBoardJson() {
+        String json = "{\"turnColor\":\"BLACK\",\"isOver\":false,\"board\":{\"board\":[" +
+                "[null,null,null,null,{\"color\":\"WHITE\",\"type\":\"KING\"},null,null,null]," +
+                "[null,null,null,null,null,null,null,null]," +
+                "[null,null,null,null,null,null,null,null]," +
+                "[null,null,null,null,{\"color\":\"WHITE\",\"type\":\"PAWN\"},null,null,null]," +
+                "[null,null,null,null,null,null,null,null]," +
+                "[null,null,null,null,null,null,null,null]," +
+                "[null,null,null,null,null,null,null,null]," +
+                "[null,null,null,null,{\"color\":\"BLACK\",\"type\":\"KING\"},null,null,null]]," +
+                "\"history\":[{\"startPosition\":{\"row\":2,\"column\":5}," +
+                "\"endPosition\":{\"row\":4,\"column\":5},\"promotionPiece\":null}]}}";
+
+        ChessGame read = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 b - e3 0 1").getBoard(), read.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, read.getTeamTurn());
+        Assertions.assertEquals(1, read.getBoard().getHistory().size());
+        Assertions.assertEquals(Bitboard.square(3, 5), read.getBoard().getEnPassantSquare());
+    }
+}
@@ -0,0 +1,146 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawTests {
+
+    private final Gson gson = ChessGson.create();
+
+    @Test
+    @DisplayName("Threefold Repetition Ends The Game")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        Assertions.assertFalse(game.isDrawByRepetition());
+        Assertions.assertFalse(game.isIsOver());
+
+        game = gson.fromJson(gson.toJson(game), ChessGame.class);
+        game.makeMove(UciMoves.parse("g1f3"));
+        game.makeMove(UciMoves.parse("g8f6"));
+        game.makeMove(UciMoves.parse("f3g1"));
+        Assertions.assertFalse(game.isIsOver());
+        game.makeMove(UciMoves.parse("f6g8"));
+        Assertions.assertTrue(game.isDrawByRepetition(), "Positions from before a reload should still count");
+        Assertions.assertTrue(game.isIsOver());
+    }
+
+    @Test
+    @DisplayName("Pawn Moves Reset Repetitions")
+    public void pawnMoveResetsRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(UciMoves.parse("a2a3"));
+        game.makeMove(UciMoves.parse("a7a6"));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        shuffleKnights(game);
+        Assertions.assertFalse(game.isDrawByRepetition());
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        shuffleKnights(game);
+        Assertions.assertFalse(game.isIsOver());
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isIsOver());
+    }
+
+    @Test
+    @DisplayName("Fifty Move Rule Ends The Game")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(UciMoves.parse("g1f3"));
+        Assertions.assertEquals(1, game.getHalfmoveClock());
+
+        JsonObject json = new Gson().toJsonTree(game).getAsJsonObject();
+        json.addProperty("halfmoveClock", 99);
+        game = gson.fromJson(json, ChessGame.class);
+        Assertions.assertFalse(game.isDrawByFiftyMoveRule());
+        game.makeMove(UciMoves.parse("g8f6"));
+        Assertions.assertTrue(game.isDrawByFiftyMoveRule());
+        Assertions.assertTrue(game.isIsOver());
+    }
+
+    @Test
+    @DisplayName("Insufficient Material Ends The Game")
+    public void insufficientMaterial() throws InvalidMoveException {
+        ChessGame game = gameWith("K", 1, 5, "r", 2, 5, "k", 8, 5);
+        Assertions.assertFalse(game.isDrawByInsufficientMaterial());
+        game.makeMove(UciMoves.parse("e1e2"));
+        Assertions.assertTrue(game.isDrawByInsufficientMaterial());
+        Assertions.assertTrue(game.isIsOver());
+
+        Assertions.assertTrue(gameWith("K", 1, 1, "B", 3, 3, "k", 8, 8).isDrawByInsufficientMaterial());
+        Assertions.assertTrue(gameWith("K", 1, 1, "k", 8, 8, "n", 5, 5).isDrawByInsufficientMaterial());
+        Assertions.assertTrue(gameWith("K", 1, 1, "B", 1, 3, "k", 8, 8, "b", 8, 6).isDrawByInsufficientMaterial());
+        Assertions.assertFalse(gameWith("K", 1, 1, "B", 1, 3, "k", 8, 8, "b", 8, 3).isDrawByInsufficientMaterial());
+        Assertions.assertFalse(gameWith("K", 1, 1, "N", 1, 2, "k", 8, 8, "b", 8, 6).isDrawByInsufficientMaterial());
+        Assertions.assertFalse(gameWith("K", 1, 1, "P", 2, 2, "k", 8, 8).isDrawByInsufficientMaterial());
+        Assertions.assertFalse(new ChessGame().isDrawByInsufficientMaterial());
+    }
+
+    /**
+     * @param pieces repeated groups of a piece letter (upper case for white), row and column
+     */
+    private static ChessGame gameWith(Object... pieces) {
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < pieces.length; i += 3) {
+            String letter = (String) pieces[i];
+            ChessGame.TeamColor color = Character.isUpperCase(letter.charAt(0)) ? ChessGame.TeamColor.WHITE :
+                    ChessGame.TeamColor.BLACK;
+            ChessPiece.PieceType type = switch (letter.toLowerCase()) {
+                case "k" -> ChessPiece.PieceType.KING;
+                case "b" -> ChessPiece.PieceType.BISHOP;
+                case "n" -> ChessPiece.PieceType.KNIGHT;
+                case "r" -> ChessPiece.PieceType.ROOK;
+                default -> ChessPiece.PieceType.PAWN;
+            };
+            board.addPiece(new ChessPosition((int) pieces[i + 1], (int) pieces[i + 2]), ChessPiece.of(color, type));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        return game;
+    }
+
+    @Test
+    @DisplayName("Status Follows Check, Checkmate And Draws")
+    public void statusFollowsGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        game.makeMove(UciMoves.parse("f2f3"));
+        game.makeMove(UciMoves.parse("e7e5"));
+        game.makeMove(UciMoves.parse("g2g4"));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        game.makeMove(UciMoves.parse("d8h4"));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        Assertions.assertTrue(game.isIsOver());
+        game.undoMove();
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+
+        game = new ChessGame();
+        game.makeMove(UciMoves.parse("e2e4"));
+        game.makeMove(UciMoves.parse("f7f6"));
+        game.makeMove(UciMoves.parse("d1h5"));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getStatus());
+        Assertions.assertFalse(game.isIsOver());
+        game.getBoard().addPiece(new ChessPosition(6, 7), ChessPiece.of(ChessGame.TeamColor.BLACK,
+                ChessPiece.PieceType.PAWN));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus(), "Board edits should be noticed");
+
+        game = new ChessGame();
+        shuffleKnights(game);
+        shuffleKnights(game);
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_BY_REPETITION, game.getStatus());
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        game.makeMove(UciMoves.parse("g1f3"));
+        game.makeMove(UciMoves.parse("g8f6"));
+        game.makeMove(UciMoves.parse("f3g1"));
+        game.makeMove(UciMoves.parse("f6g8"));
+    }
+}
@@ -0,0 +1,63 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Start Position Round Trips")
+    public void startPosition() {
+        ChessGame game = ChessGame.fromFen(Fen.START);
+        Assertions.assertEquals(new ChessGame(), game);
+        Assertions.assertEquals(new ChessGame().zobristKey(), game.zobristKey());
+        Assertions.assertEquals(Fen.START, new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Moves Update Every Field")
+    public void movesUpdateFields() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(UciMoves.parse("e2e4"));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(UciMoves.parse("g8f6"));
+        game.makeMove(UciMoves.parse("e1e2"));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+        Assertions.assertEquals(game.toFen(), ChessGame.fromFen(game.toFen()).toFen());
+    }
+
+    @Test
+    @DisplayName("Standard Positions Round Trip")
+    public void standardPositions() {
+        for (PerftPositions.Position position : PerftPositions.ALL) {
+            Assertions.assertEquals(position.fen(), position.game().toFen(), position.name());
+        }
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertTrue(game.validMoves(new ChessPosition(5, 5))
+                .contains(UciMoves.parse("e5d6")), "En passant square should be read");
+        Assertions.assertEquals("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",
+                ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6").toFen(), "Move clocks should be optional");
+    }
+
+    @Test
+    @DisplayName("Invalid FEN Is Rejected")
+    public void invalidFen() {
+        String[] invalid = {"", "8/8/8/8/8/8/8 w - - 0 1", "9/8/8/8/8/8/8/8 w - - 0 1",
+                "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 99999999999 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - -1 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 2147483647",
+                "4k3/8/8/3pP3/8/8/8/4K3 w - d3 0 1",
+                "4k3/8/8/8/3Pp3/8/8/4K3 b - d6 0 1"};
+        for (String fen : invalid) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
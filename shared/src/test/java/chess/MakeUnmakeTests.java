@@ -0,0 +1,88 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+public class MakeUnmakeTests {
+
+    @Test
+    @DisplayName("Undo Restores Every Position Of Random Games")
+    public void undoRestoresRandomGames() {
+        RandomGames.play(240, (game, legal) -> {
+            List<ChessMove> moves = allValidMoves(game);
+            String before = game.getBoard().toString();
+            int historySize = game.getBoard().getHistory().size();
+            int castlingRights = game.getBoard().getCastlingRights();
+            int enPassantSquare = game.getBoard().getEnPassantSquare();
+            for (ChessMove move : moves) {
+                game.doMove(move);
+                game.undoMove();
+                Assertions.assertEquals(before, game.getBoard().toString(), "Board changed by " + move);
+                Assertions.assertEquals(historySize, game.getBoard().getHistory().size());
+                Assertions.assertEquals(castlingRights, game.getBoard().getCastlingRights());
+                Assertions.assertEquals(enPassantSquare, game.getBoard().getEnPassantSquare());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("History View Follows Moves And Takebacks")
+    public void historyViewFollowsMoves() {
+        ChessGame game = new ChessGame();
+        List<ChessMove> history = game.getBoard().getHistory();
+        ChessMove push = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove reply = new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null);
+        game.doMove(push);
+        game.doMove(reply);
+        Assertions.assertEquals(List.of(push, reply), history);
+        Assertions.assertEquals(reply, game.getBoard().getLastMove());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> history.add(push));
+
+        ChessBoard copy = new ChessBoard(game.getBoard());
+        game.undoMove();
+        Assertions.assertEquals(List.of(push), history);
+        Assertions.assertEquals(List.of(push, reply), copy.getHistory());
+    }
+
+    @Test
+    @DisplayName("Packed Moves Match ChessMoves Of Random Games")
+    public void packedMovesMatchRandomGames() {
+        RandomGames.play(241, (game, packed) -> {
+            List<ChessMove> moves = allValidMoves(game);
+            Assertions.assertEquals(new HashSet<>(moves), new HashSet<>(packed.toChessMoves()));
+            Assertions.assertEquals(!packed.isEmpty(), game.hasAnyLegalMove(game.getTeamTurn()));
+            String before = game.getBoard().toString();
+            for (int i = 0; i < packed.size(); i++) {
+                int move = packed.get(i);
+                game.doMove(move);
+                String after = game.getBoard().toString();
+                game.undoMove();
+                game.doMove(Move.toChessMove(move));
+                Assertions.assertEquals(after, game.getBoard().toString(), "Flags disagree for " + Move.toString(move));
+                game.undoMove();
+                Assertions.assertEquals(before, game.getBoard().toString());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Undo Without Moves")
+    public void undoWithoutMoves() {
+        Assertions.assertThrows(IllegalStateException.class, () -> new ChessGame().undoMove());
+    }
+
+    private static List<ChessMove> allValidMoves(ChessGame game) {
+        List<ChessMove> moves = new ArrayList<>();
+        long pieces = game.getBoard().getOccupancy(game.getTeamTurn());
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Bitboard.first(pieces);
+            moves.addAll(game.validMoves(new ChessPosition(Bitboard.row(square), Bitboard.column(square))));
+        }
+        return moves;
+    }
+}
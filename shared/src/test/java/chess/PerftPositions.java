@@ -0,0 +1,48 @@
+package chess;
+
+import java.util.List;
+
+/**
+ * The standard perft test positions with their published node counts, shared by
+ * {@link PerftTests} and the perft benchmark.
+ */
+public final class PerftPositions {
+
+    /**
+     * @param name   how the position is usually referred to
+     * @param fen    the position in Forsyth-Edwards Notation
+     * @param counts the expected node count at depth 1, 2, 3 and so on
+     */
+    public record Position(String name, String fen, long... counts) {
+        /**
+         * @return a fresh game in the position
+         */
+        public ChessGame game() {
+            return ChessGame.fromFen(fen);
+        }
+    }
+
+    public static final Position START = new Position("Initial position",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20, 400, 8_902, 197_281, 4_865_609);
+
+    public static final Position KIWIPETE = new Position("Kiwipete",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48, 2_039, 97_862, 4_085_603);
+
+    public static final Position POSITION_3 = new Position("Position 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191, 2_812, 43_238, 674_624);
+
+    public static final Position POSITION_4 = new Position("Position 4",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6, 264, 9_467, 422_333);
+
+    public static final Position POSITION_5 = new Position("Position 5",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44, 1_486, 62_379, 2_103_487);
+
+    public static final List<Position> ALL = List.of(START, KIWIPETE, POSITION_3, POSITION_4, POSITION_5);
+
+    private PerftPositions() {}
+}
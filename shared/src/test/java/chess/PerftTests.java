@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTests {
+
+    /** Deepest node count checked per position, keeping the suite to a few seconds. */
+    private static final long MAX_NODES = 1_000_000;
+
+    @Test
+    @DisplayName("Standard Perft Positions")
+    public void standardPositions() {
+        for (PerftPositions.Position position : PerftPositions.ALL) {
+            ChessGame game = position.game();
+            String before = game.getBoard().toString();
+            for (int depth = 1; depth <= position.counts().length; depth++) {
+                long expected = position.counts()[depth - 1];
+                if (expected > MAX_NODES) {
+                    break;
+                }
+                Assertions.assertEquals(expected, game.perft(depth), position.name() + " at depth " + depth);
+            }
+            Assertions.assertEquals(before, game.getBoard().toString(), "Perft left " + position.name() + " changed");
+        }
+    }
+
+    @Test
+    @DisplayName("Legal Move Check Agrees With Generation")
+    public void hasAnyLegalMoveAgrees() {
+        for (PerftPositions.Position position : PerftPositions.ALL) {
+            checkHasAnyLegalMove(position.game(), 3);
+        }
+        Assertions.assertFalse(ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1")
+                .hasAnyLegalMove(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(ChessGame.fromFen("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3")
+                .hasAnyLegalMove(ChessGame.TeamColor.WHITE));
+    }
+
+    private static void checkHasAnyLegalMove(ChessGame game, int depth) {
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        Assertions.assertEquals(!moves.isEmpty(), game.hasAnyLegalMove(game.getTeamTurn()), game.toFen());
+        if (depth == 0) {
+            return;
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            checkHasAnyLegalMove(game, depth - 1);
+            game.undoMove();
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Sums To Perft")
+    public void divideSumsToPerft() {
+        Map<ChessMove, Long> divided = PerftPositions.KIWIPETE.game().divide(3);
+        Assertions.assertEquals(48, divided.size());
+        Assertions.assertEquals(PerftPositions.KIWIPETE.counts()[2],
+                divided.values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(1, new ChessGame().perft(0));
+    }
+
+    @Test
+    @DisplayName("Parallel Perft Matches Sequential")
+    public void parallelPerft() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (PerftPositions.Position position : PerftPositions.ALL) {
+                ChessGame game = position.game();
+                Assertions.assertEquals(position.counts()[3], ParallelMoveTree.perft(game, 4, pool), position.name());
+            }
+            ChessGame kiwipete = PerftPositions.KIWIPETE.game();
+            Assertions.assertEquals(kiwipete.divide(3), ParallelMoveTree.evaluateSubtrees(kiwipete,
+                    child -> child.perft(2), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Copied Games Are Independent")
+    public void copiesAreIndependent() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        ChessGame copy = new ChessGame(game);
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.zobristKey(), copy.zobristKey());
+        copy.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Assertions.assertNotEquals(game, copy);
+        Assertions.assertEquals(1, game.getBoard().getHistory().size());
+        Assertions.assertEquals(2, copy.getBoard().getHistory().size());
+        Assertions.assertTrue(game.getBoard().isAttacked(Bitboard.square(5, 4), ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(copy.getBoard().isAttacked(Bitboard.square(5, 5), ChessGame.TeamColor.WHITE));
+    }
+}
@@ -0,0 +1,67 @@
+package chess;
+
+import java.util.Random;
+
+/**
+ * Plays seeded random games of legal moves, handing every position along the way to a
+ * check, for tests that have to hold after any sequence of moves.
+ */
+public final class RandomGames {
+
+    public static final int GAMES = 20;
+    public static final int PLIES = 120;
+
+    /**
+     * Looks at one position of a random game. It may play and take back moves on the game, but has to leave both
+     * the game and the move list as it found them.
+     */
+    @FunctionalInterface
+    public interface PlyCheck {
+        /**
+         * @param game  the game so far
+         * @param moves the legal moves of the team to move, empty once the game has ended
+         */
+        void check(ChessGame game, MoveList moves);
+    }
+
+    private RandomGames() {}
+
+    /**
+     * Plays {@link #GAMES} games of up to {@link #PLIES} moves each from the starting position
+     *
+     * @param seed  the seed that picks the moves, so a failure can be replayed
+     * @param check what to run on every position
+     */
+    public static void play(long seed, PlyCheck check) {
+        Random random = new Random(seed);
+        for (int gameNumber = 0; gameNumber < GAMES; gameNumber++) {
+            play(new ChessGame(), random, PLIES, check);
+        }
+    }
+
+    /**
+     * Plays one game on, making each move with {@link ChessGame#makeMove(ChessMove)}, until it ends or the given
+     * number of moves has been made
+     *
+     * @param game   the game to play on, which is changed
+     * @param random picks each move
+     * @param plies  the most moves to make
+     * @param check  what to run on every position, including the last
+     */
+    public static void play(ChessGame game, Random random, int plies, PlyCheck check) {
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply <= plies; ply++) {
+            moves.clear();
+            game.legalMoves(game.getTeamTurn(), moves);
+            check.check(game, moves);
+            if (ply == plies || moves.isEmpty() || game.isIsOver()) {
+                return;
+            }
+            try {
+                game.makeMove(Move.toChessMove(moves.get(random.nextInt(moves.size()))));
+            } catch (InvalidMoveException e) {
+                throw new AssertionError("A legal move was rejected", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package chess;
+
+/**
+ * Writes test moves the way engines and move lists do, for example {@code g1f3} or {@code e7e8q}.
+ */
+public final class UciMoves {
+
+    private UciMoves() {}
+
+    /**
+     * @param text the move in UCI long algebraic notation
+     * @return the move as a {@link ChessMove}
+     */
+    public static ChessMove parse(String text) {
+        return Move.toChessMove(Move.parse(text));
+    }
+}
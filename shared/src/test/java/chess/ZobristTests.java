@@ -0,0 +1,59 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Incremental Key Matches Rebuilt Key")
+    public void incrementalKeyMatchesRebuilt() {
+        RandomGames.play(310, (game, moves) -> {
+            long before = game.zobristKey();
+            for (int i = 0; i < moves.size(); i++) {
+                game.doMove(moves.get(i));
+                Assertions.assertEquals(rebuiltKey(game), game.zobristKey(), Move.toString(moves.get(i)));
+                game.undoMove();
+                Assertions.assertEquals(before, game.zobristKey());
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Transpositions Share A Key")
+    public void transpositionsShareKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.zobristKey();
+        game.makeMove(UciMoves.parse("g1f3"));
+        Assertions.assertNotEquals(start, game.zobristKey());
+        game.makeMove(UciMoves.parse("g8f6"));
+        game.makeMove(UciMoves.parse("f3g1"));
+        game.makeMove(UciMoves.parse("f6g8"));
+        Assertions.assertEquals(start, game.zobristKey());
+
+        game.makeMove(UciMoves.parse("g1f3"));
+        game.makeMove(UciMoves.parse("g8f6"));
+        game.makeMove(UciMoves.parse("h1g1"));
+        game.makeMove(UciMoves.parse("f6g8"));
+        game.makeMove(UciMoves.parse("g1h1"));
+        game.makeMove(UciMoves.parse("g8f6"));
+        game.makeMove(UciMoves.parse("f3g1"));
+        game.makeMove(UciMoves.parse("f6g8"));
+        Assertions.assertEquals(new ChessGame().getBoard(), game.getBoard());
+        Assertions.assertNotEquals(start, game.zobristKey(), "Lost castling rights must change the key");
+    }
+
+    private static long rebuiltKey(ChessGame game) {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            board.addPiece(square, game.getBoard().getPiece(square));
+        }
+        board.setCastlingRights(game.getBoard().getCastlingRights());
+        board.setEnPassantSquare(game.getBoard().getEnPassantSquare());
+        ChessGame rebuilt = new ChessGame();
+        rebuilt.setBoard(board);
+        rebuilt.setTeamTurn(game.getTeamTurn());
+        return rebuilt.zobristKey();
+    }
+}
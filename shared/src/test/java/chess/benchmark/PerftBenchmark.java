@@ -0,0 +1,58 @@
+package chess.benchmark;
+
+import chess.ChessGame;
+import chess.ParallelMoveTree;
+import chess.PerftPositions;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs perft on the standard test positions and reports nodes per second, as a
+ * throughput baseline for changes to move generation and make/unmake. Counts are
+ * checked against the published values so a fast but wrong generator cannot pass.
+ * <p>
+ * Run the main method from the IDE, or with
+ * {@code mvn -pl shared exec:java -Dexec.classpathScope=test -Dexec.mainClass=chess.benchmark.PerftBenchmark}.
+ * An optional argument sets the deepest depth to run (default 5). Each position is
+ * counted once on the current thread and once with {@link ParallelMoveTree} on the
+ * common fork/join pool.
+ */
+public class PerftBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            for (PerftPositions.Position position : PerftPositions.ALL) {
+                position.game().perft(Math.min(3, position.counts().length));
+            }
+        }
+        System.out.println("Sequential:");
+        run(maxDepth, false);
+        System.out.printf("Parallel on %d threads:%n", ForkJoinPool.commonPool().getParallelism());
+        run(maxDepth, true);
+    }
+
+    private static void run(int maxDepth, boolean parallel) {
+        long totalNodes = 0;
+        long totalTime = 0;
+        for (PerftPositions.Position position : PerftPositions.ALL) {
+            int depth = Math.min(maxDepth, position.counts().length);
+            ChessGame game = position.game();
+            long start = System.nanoTime();
+            long nodes = parallel ? ParallelMoveTree.perft(game, depth) : game.perft(depth);
+            long time = System.nanoTime() - start;
+            if (nodes != position.counts()[depth - 1]) {
+                throw new IllegalStateException(position.name() + " at depth " + depth + ": expected " +
+                        position.counts()[depth - 1] + " but counted " + nodes);
+            }
+            totalNodes += nodes;
+            totalTime += time;
+            System.out.printf("%-17s depth %d %,13d nodes %,8d ms %,13.0f nodes/s%n", position.name(), depth,
+                    nodes, time / 1_000_000, nodes * 1e9 / time);
+        }
+        System.out.printf("%-17s         %,13d nodes %,8d ms %,13.0f nodes/s%n", "Total", totalNodes,
+                totalTime / 1_000_000, totalNodes * 1e9 / totalTime);
+    }
+}
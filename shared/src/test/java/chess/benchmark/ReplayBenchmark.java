@@ -0,0 +1,103 @@
+package chess.benchmark;
+
+import chess.*;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Replays complete games and times check detection after every move, comparing a
+ * lookup of the pieces attacking the king against the old approach of collecting every
+ * targeted square of the opposing team into a set.
+ * <p>
+ * Run the main method from the IDE, or with
+ * {@code mvn -pl shared exec:java -Dexec.classpathScope=test -Dexec.mainClass=chess.benchmark.ReplayBenchmark}.
+ */
+public class ReplayBenchmark {
+
+    /** Morphy vs. Duke Karl / Count Isouard, Paris 1858. */
+    private static final String OPERA_GAME = "e2e4 e7e5 g1f3 d7d6 d2d4 c8g4 d4e5 g4f3 d1f3 d6e5 f1c4 g8f6 f3b3 " +
+            "d8e7 b1c3 c7c6 c1g5 b7b5 c3b5 c6b5 c4b5 b8d7 e1c1 a8d8 d1d7 d8d7 h1d1 e7e6 b5d7 f6d7 b3b8 d7b8 d1d8";
+
+    private static final String SCHOLARS_MATE = "e2e4 e7e5 f1c4 g8f6 d1h5 b8c6 h5f7";
+
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 10_000;
+
+    public static void main(String[] args) throws InvalidMoveException {
+        String[] games = {OPERA_GAME, SCHOLARS_MATE};
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            replay(games, true);
+            replay(games, false);
+        }
+        long scanStart = System.nanoTime();
+        long scanChecks = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            scanChecks += replay(games, false);
+        }
+        long scanTime = System.nanoTime() - scanStart;
+
+        long lookupStart = System.nanoTime();
+        long lookupChecks = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            lookupChecks += replay(games, true);
+        }
+        long lookupTime = System.nanoTime() - lookupStart;
+
+        if (scanChecks != lookupChecks) {
+            throw new IllegalStateException("Check counts disagree: " + scanChecks + " vs " + lookupChecks);
+        }
+        System.out.printf("Full-board target scan: %,d ms%n", scanTime / 1_000_000);
+        System.out.printf("Attacker lookup:        %,d ms%n", lookupTime / 1_000_000);
+        System.out.printf("Speedup: %.1fx%n", (double) scanTime / lookupTime);
+    }
+
+    /**
+     * Plays every game from the start, asking after each move whether either team is in check.
+     *
+     * @return how many of those queries found a team in check
+     */
+    private static long replay(String[] games, boolean useAttackers) throws InvalidMoveException {
+        long checks = 0;
+        for (String moves : games) {
+            ChessGame game = new ChessGame();
+            for (String move : moves.split(" ")) {
+                game.makeMove(UciMoves.parse(move));
+                for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                    boolean inCheck = useAttackers ? game.isInCheck(color) : scanForCheck(game.getBoard(), color);
+                    if (inCheck) {
+                        checks++;
+                    }
+                }
+            }
+        }
+        return checks;
+    }
+
+    /**
+     * The check test ChessGame used before it looked up attackers from the king's square.
+     */
+    private static boolean scanForCheck(ChessBoard board, ChessGame.TeamColor color) {
+        Set<ChessPosition> targeted = new HashSet<>();
+        ChessPosition king = null;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece == null) {
+                    continue;
+                }
+                if (piece.getTeamColor() == color) {
+                    if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+                        king = position;
+                    }
+                } else {
+                    Collection<ChessPosition> targets = piece.pieceTargets(board, position);
+                    targeted.addAll(targets);
+                }
+            }
+        }
+        return targeted.contains(king);
+    }
+}
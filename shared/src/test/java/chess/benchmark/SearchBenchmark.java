@@ -0,0 +1,66 @@
+package chess.benchmark;
+
+import chess.PerftPositions;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+
+/**
+ * Measures how the Lazy SMP search scales with threads: every standard position is
+ * searched to a fixed depth with 1, 2, 4, 8 and 16 threads, and the time to depth, node
+ * throughput and speedup over one thread are reported. Each run starts from an empty
+ * transposition table so earlier runs cannot help later ones.
+ * <p>
+ * Run the main method from the IDE, or with
+ * {@code mvn -pl shared exec:java -Dexec.classpathScope=test -Dexec.mainClass=chess.benchmark.SearchBenchmark}.
+ * An optional argument sets the search depth (default 6), and a second the table size in
+ * megabytes (default 64). Speedups beyond the number of cores on the machine are not
+ * expected.
+ */
+public class SearchBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+    private static final int WARMUP_ROUNDS = 2;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int megabytes = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        System.out.printf("Depth %d, %d MB table, %d cores%n", depth, megabytes,
+                Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(1, Math.min(depth, 4), megabytes, false);
+        }
+        long baseline = 0;
+        for (int threads : THREAD_COUNTS) {
+            long time = run(threads, depth, megabytes, true);
+            if (baseline == 0) {
+                baseline = time;
+            }
+            System.out.printf("%2d threads: %,8d ms total, speedup %.2fx%n%n", threads, time / 1_000_000,
+                    (double) baseline / time);
+        }
+    }
+
+    /**
+     * @return the total time in nanoseconds taken to search every position to the given depth
+     */
+    private static long run(int threads, int depth, int megabytes, boolean print) {
+        long totalTime = 0;
+        for (PerftPositions.Position position : PerftPositions.ALL) {
+            try (Engine engine = new Engine(new TranspositionTable(megabytes,
+                    TranspositionTable.ReplacementPolicy.AGED), threads)) {
+                long start = System.nanoTime();
+                SearchResult result = engine.search(position.game(), SearchLimits.depth(depth));
+                long time = System.nanoTime() - start;
+                totalTime += time;
+                if (print) {
+                    System.out.printf("%-17s %2d threads depth %2d %,12d nodes %,8d ms %,11.0f nodes/s  %s%n",
+                            position.name(), threads, result.depth(), result.nodes(), time / 1_000_000,
+                            result.nodes() * 1e9 / time, result.move());
+                }
+            }
+        }
+        return totalTime;
+    }
+}
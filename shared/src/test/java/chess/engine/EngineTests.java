@@ -0,0 +1,116 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EngineTests {
+
+    private final Engine engine = new Engine();
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void findsMateInOne() {
+        SearchResult result = engine.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                SearchLimits.depth(4));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.move());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertTrue(result.score() > 0);
+    }
+
+    @Test
+    @DisplayName("Takes A Hanging Queen")
+    public void takesHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null),
+                engine.bestMove(game, SearchLimits.depth(3)));
+    }
+
+    @Test
+    @DisplayName("Search Leaves The Game Unchanged")
+    public void leavesGameUnchanged() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String fen = game.toFen();
+        long key = game.zobristKey();
+        Assertions.assertNotNull(engine.bestMove(game, SearchLimits.depth(3)));
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(key, game.zobristKey());
+    }
+
+    @Test
+    @DisplayName("Searching A Played Game Matches Searching Its FEN")
+    public void playedGameMatchesFen() throws InvalidMoveException {
+        ChessGame played = new ChessGame();
+        played.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        played.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        played.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, played.getStatus());
+
+        SearchResult fromPlayed = new Engine().search(played, SearchLimits.depth(4));
+        SearchResult fromFen = new Engine().search(ChessGame.fromFen(played.toFen()), SearchLimits.depth(4));
+        Assertions.assertEquals(fromFen, fromPlayed);
+    }
+
+    @Test
+    @DisplayName("Search Respects Node And Time Limits")
+    public void respectsLimits() {
+        ChessGame game = new ChessGame();
+        SearchResult limited = engine.search(game, SearchLimits.nodes(5_000));
+        Assertions.assertNotNull(limited.move());
+        Assertions.assertTrue(limited.nodes() <= 5_000, "Searched " + limited.nodes() + " nodes");
+
+        long start = System.nanoTime();
+        SearchResult timed = engine.search(game, SearchLimits.millis(50));
+        Assertions.assertNotNull(timed.move());
+        Assertions.assertTrue(timed.depth() >= 1);
+        Assertions.assertTrue(System.nanoTime() - start < 1_000_000_000L, "Search ran well past its time limit");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SearchLimits.depth(0));
+    }
+
+    @Test
+    @DisplayName("Lazy SMP Search Agrees On Forced Lines")
+    public void lazySmpSearch() {
+        try (Engine parallel = new Engine(new TranspositionTable(4, TranspositionTable.ReplacementPolicy.AGED), 4)) {
+            ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+            SearchResult result = parallel.search(game, SearchLimits.depth(4));
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                    result.move());
+            Assertions.assertTrue(result.isMate());
+
+            game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+            String fen = game.toFen();
+            SearchResult capture = parallel.search(game, SearchLimits.depth(4));
+            Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null),
+                    capture.move());
+            Assertions.assertTrue(capture.depth() >= 4);
+            Assertions.assertEquals(fen, game.toFen());
+
+            Assertions.assertNotNull(parallel.bestMove(new ChessGame(), SearchLimits.millis(30)));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new Engine(new TranspositionTable(), 0));
+    }
+
+    @Test
+    @DisplayName("No Move Without Legal Moves")
+    public void noMoveWhenMated() {
+        SearchResult result = engine.search(ChessGame.fromFen(
+                "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3"), SearchLimits.depth(3));
+        Assertions.assertNull(result.move());
+        Assertions.assertTrue(result.isMate());
+    }
+
+    @Test
+    @DisplayName("Evaluation Is Symmetric")
+    public void evaluationIsSymmetric() {
+        Assertions.assertEquals(0, Evaluation.evaluate(new ChessGame()));
+        int white = Evaluation.evaluate(ChessGame.fromFen("4k3/8/8/8/4P3/2N5/8/4K3 w - - 0 1"));
+        int black = Evaluation.evaluate(ChessGame.fromFen("4k3/8/2n5/4p3/8/8/8/4K3 b - - 0 1"));
+        Assertions.assertEquals(white, black);
+        Assertions.assertTrue(white > 400);
+    }
+}
@@ -0,0 +1,70 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MoveOrdererTests {
+
+    @Test
+    @DisplayName("Moves Come Out By Hash Move, MVV-LVA, Killers And History")
+    public void ordersMoves() {
+        // The pawn and the knight can both take the queen on d5, and the knight can take the rook on h5
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q3r/4PN2/8/8/4K3 w - - 0 1");
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        MoveOrderer orderer = new MoveOrderer();
+        orderer.recordCutoff(ChessGame.TeamColor.WHITE, Move.parse("e1f1"), 3, 2);
+        orderer.recordCutoff(ChessGame.TeamColor.WHITE, Move.parse("e1e2"), 5, 7);
+
+        orderer.score(game.getBoard(), game.getTeamTurn(), moves, 2, Move.NONE);
+        String[] expected = {"e4d5", "f4d5", "f4h5", "e1f1", "e1e2"};
+        for (int i = 0; i < expected.length; i++) {
+            Assertions.assertEquals(expected[i], Move.toString(orderer.next(moves, 2, i)), "Move " + i);
+        }
+
+        int hashMove = moves.get(moves.size() - 1);
+        orderer.score(game.getBoard(), game.getTeamTurn(), moves, 2, hashMove);
+        Assertions.assertEquals(hashMove, orderer.next(moves, 2, 0));
+
+        orderer.scoreTactical(game.getBoard(), moves, 3);
+        int tactical = 0;
+        while (tactical < moves.size() && MoveOrderer.isTactical(orderer.next(moves, 3, tactical))) {
+            tactical++;
+        }
+        Assertions.assertEquals(3, tactical);
+    }
+
+    @Test
+    @DisplayName("Capturing Underpromotions Keep Their MVV-LVA Place")
+    public void capturingUnderpromotionsRankAsCaptures() {
+        // The pawn can take the queen on g8 with any promotion, and the knight can take the rook on c3
+        ChessGame game = ChessGame.fromFen("k5q1/5P2/8/8/8/2r5/8/3NK3 w - - 0 1");
+        MoveList moves = new MoveList();
+        game.legalMoves(game.getTeamTurn(), moves);
+        MoveOrderer orderer = new MoveOrderer();
+        orderer.score(game.getBoard(), game.getTeamTurn(), moves, 0, Move.NONE);
+
+        Assertions.assertEquals("f7g8q", Move.toString(orderer.next(moves, 0, 0)));
+        for (int i = 1; i <= 3; i++) {
+            Assertions.assertTrue(Move.toString(orderer.next(moves, 0, i)).startsWith("f7g8"), "Move " + i);
+        }
+        Assertions.assertEquals("d1c3", Move.toString(orderer.next(moves, 0, 4)));
+        Assertions.assertEquals("f7f8q", Move.toString(orderer.next(moves, 0, 5)));
+        for (int i = 6; i < moves.size(); i++) {
+            String move = Move.toString(orderer.next(moves, 0, i));
+            Assertions.assertEquals(i >= moves.size() - 3, move.startsWith("f7f8"), "Move " + i + " " + move);
+        }
+    }
+
+    @Test
+    @DisplayName("Ordering Shrinks The Search Tree")
+    public void orderingShrinksTree() {
+        SearchResult result = new Engine().search(ChessGame.fromFen(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"), SearchLimits.depth(4));
+        Assertions.assertTrue(result.nodes() < 1_000_000, "Searched " + result.nodes() + " nodes");
+    }
+}
@@ -0,0 +1,108 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Entries Round Trip")
+    public void entriesRoundTrip() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        Assertions.assertEquals(65_536, table.capacity());
+        int move = Move.encode(52, 60, ChessPiece.PieceType.QUEEN, Move.CAPTURE);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+
+        table.store(key, move, -31_990, 17, TranspositionTable.UPPER);
+        long entry = table.probe(key);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-31_990, TranspositionTable.score(entry));
+        Assertions.assertEquals(17, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(entry));
+
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key + table.capacity()),
+                "A different key in the same slot should miss");
+        table.clear();
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+    }
+
+    @Test
+    @DisplayName("Replacement Policies")
+    public void replacementPolicies() {
+        long key = 42;
+        long other = key + (1L << 40);
+        TranspositionTable always = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        always.store(key, Move.NONE, 10, 8, TranspositionTable.EXACT);
+        always.store(other, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(20, TranspositionTable.score(always.probe(other)));
+
+        TranspositionTable deep = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        deep.store(key, Move.NONE, 10, 8, TranspositionTable.EXACT);
+        deep.store(other, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(10, TranspositionTable.score(deep.probe(key)));
+        deep.newSearch();
+        deep.store(other, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(10, TranspositionTable.score(deep.probe(key)));
+
+        TranspositionTable aged = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.AGED);
+        aged.store(key, Move.NONE, 10, 8, TranspositionTable.EXACT);
+        aged.store(other, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(10, TranspositionTable.score(aged.probe(key)));
+        aged.newSearch();
+        aged.store(other, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        Assertions.assertEquals(20, TranspositionTable.score(aged.probe(other)));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new TranspositionTable(0, TranspositionTable.ReplacementPolicy.ALWAYS));
+    }
+
+    @Test
+    @DisplayName("Concurrent Writers Never Produce Mismatched Entries")
+    public void concurrentWriters() throws InterruptedException {
+        // A tiny table so the threads fight over the same slots
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        AtomicLong mismatches = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1_000_000; i++) {
+                    long key = random.nextLong(1 << 20) * 0x9E3779B97F4A7C15L;
+                    table.store(key, Move.NONE, (int) (key >>> 50), 3, TranspositionTable.EXACT);
+                    long probed = random.nextLong(1 << 20) * 0x9E3779B97F4A7C15L;
+                    long entry = table.probe(probed);
+                    if (entry != TranspositionTable.MISS && TranspositionTable.score(entry) != (int) (probed >>> 50)) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertEquals(0, mismatches.get());
+    }
+
+    @Test
+    @DisplayName("A Warm Table Shortens The Next Search")
+    public void warmTableShortensSearch() {
+        Engine engine = new Engine(new TranspositionTable(4, TranspositionTable.ReplacementPolicy.AGED));
+        ChessGame game = new ChessGame();
+        SearchResult cold = engine.search(game, SearchLimits.depth(4));
+        SearchResult warm = engine.search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(cold.move(), warm.move());
+        Assertions.assertEquals(cold.score(), warm.score());
+        Assertions.assertTrue(warm.nodes() < cold.nodes(), warm.nodes() + " nodes after " + cold.nodes());
+    }
+}